@@ -0,0 +1,88 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures adding the new dependencies of a project to a {@link DuplicationPlan}, which interns them by their
+ * {@link DependencyKey}.
+ * <p>
+ * Every dependency is added twice, so half of the additions are duplicates.
+ *
+ * @author mickroll
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DuplicationPlanBenchmark {
+
+    @Param({ "10", "100", "500" })
+    int dependencies;
+
+    @Param({ "0", "10" })
+    int exclusions;
+
+    private final MavenProject project = new MavenProject();
+    private List<Dependency> newDependencies;
+    private Dependency first;
+    private Dependency firstCopy;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        newDependencies = new ArrayList<>();
+        for (int i = 0; i < dependencies; i++) {
+            newDependencies.add(dependency(i));
+        }
+        for (int i = 0; i < dependencies; i++) {
+            newDependencies.add(dependency(i));
+        }
+        first = dependency(0);
+        firstCopy = dependency(0);
+    }
+
+    private Dependency dependency(final int index) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId("org.example");
+        dependency.setArtifactId("module-" + index);
+        dependency.setVersion("1.0.0-SNAPSHOT");
+        dependency.setType("test-jar");
+        dependency.setScope("test");
+        for (int e = exclusions - 1; e >= 0; e--) {
+            final Exclusion exclusion = new Exclusion();
+            exclusion.setGroupId("org.excluded");
+            exclusion.setArtifactId("excluded-" + e);
+            dependency.addExclusion(exclusion);
+        }
+        return dependency;
+    }
+
+    @Benchmark
+    public DuplicationPlan add() {
+        return DuplicationPlan.builder().add(project, newDependencies).build();
+    }
+
+    @Benchmark
+    public boolean keyEquals() {
+        return DependencyKey.of(first).equals(DependencyKey.of(firstCopy));
+    }
+}
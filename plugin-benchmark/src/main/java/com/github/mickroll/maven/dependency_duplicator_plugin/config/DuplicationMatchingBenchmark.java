@@ -0,0 +1,124 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures matching and duplicating the dependencies of a single project.
+ * <p>
+ * Rule {@code i} matches the artifacts {@code module-i-*} of group {@code org.example.group-i}, the dependencies of the project
+ * are spread evenly across all rules plus one group that no rule matches. The rules are either defined as {@code dependencyKeys}
+ * regExes or as {@code dependencyPatterns}.
+ *
+ * @author mickroll
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DuplicationMatchingBenchmark {
+
+    @Param({ "1", "10", "40" })
+    int rules;
+
+    @Param({ "1", "5" })
+    int patternsPerRule;
+
+    @Param({ "10", "60" })
+    int dependencies;
+
+    @Param({ "0", "10" })
+    int exclusions;
+
+    @Param({ "regex", "pattern" })
+    String syntax;
+
+    private PluginMojo config;
+    private DependencyDuplication lastRule;
+    private List<Dependency> projectDependencies;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        config = new PluginMojo();
+        config.duplications = new ArrayList<>();
+        for (int rule = 0; rule < rules; rule++) {
+            final DependencyDuplication duplication = new DependencyDuplication();
+            final List<String> keys = new ArrayList<>();
+            for (int pattern = 0; pattern < patternsPerRule; pattern++) {
+                keys.add("regex".equals(syntax)
+                        ? "org\\.example\\.group-" + rule + ":module-" + rule + "-" + pattern + ".*:jar"
+                        : "org.example.group-" + rule + ":module-" + rule + "-" + pattern + "*:jar");
+            }
+            if ("regex".equals(syntax)) {
+                duplication.dependencyKeys = keys;
+            } else {
+                duplication.dependencyPatterns = keys;
+            }
+            duplication.targetScope = "test";
+            duplication.targetType = "test-jar";
+            duplication.addDownstream = true;
+            config.duplications.add(duplication);
+            lastRule = duplication;
+        }
+
+        projectDependencies = new ArrayList<>();
+        for (int i = 0; i < dependencies; i++) {
+            final int group = i % (rules + 1);
+            final Dependency dependency = new Dependency();
+            dependency.setGroupId(group == rules ? "org.unmatched" : "org.example.group-" + group);
+            dependency.setArtifactId("module-" + group + "-" + (i % patternsPerRule) + "-" + i);
+            dependency.setVersion("1.0.0-SNAPSHOT");
+            for (int e = 0; e < exclusions; e++) {
+                final Exclusion exclusion = new Exclusion();
+                exclusion.setGroupId("org.excluded");
+                exclusion.setArtifactId("excluded-" + e);
+                dependency.addExclusion(exclusion);
+            }
+            projectDependencies.add(dependency);
+        }
+    }
+
+    @Benchmark
+    public void matchesLastRule(final Blackhole blackhole) {
+        for (final Dependency dependency : projectDependencies) {
+            blackhole.consume(lastRule.matches(dependency));
+        }
+    }
+
+    @Benchmark
+    public void findFirstDuplicationConfig(final Blackhole blackhole) {
+        for (final Dependency dependency : projectDependencies) {
+            blackhole.consume(config.findFirstDuplicationConfig(dependency));
+        }
+    }
+
+    @Benchmark
+    public void findAndDuplicate(final Blackhole blackhole) {
+        for (final Dependency dependency : projectDependencies) {
+            final Optional<DependencyDuplication> duplication = config.findFirstDuplicationConfig(dependency);
+            if (duplication.isPresent()) {
+                blackhole.consume(duplication.get().doDuplicate(dependency));
+            }
+        }
+    }
+}
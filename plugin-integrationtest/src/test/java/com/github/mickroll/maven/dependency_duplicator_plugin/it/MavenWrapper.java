@@ -7,7 +7,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -31,8 +31,24 @@ public class MavenWrapper {
         this.runDir = new File(BASE_DIR, subdir).getAbsoluteFile();
     }
 
+    public static File getBaseDir() {
+        return new File(BASE_DIR).getAbsoluteFile();
+    }
+
+    public File getRunDir() {
+        return runDir;
+    }
+
     public List<String> run(final String goal, final int expectedExitValue) throws IOException, InterruptedException {
-        final Process process = new ProcessBuilder(Arrays.asList(MVN_COMMAND, goal))
+        return run(Collections.singletonList(goal), expectedExitValue, 1);
+    }
+
+    public List<String> run(final List<String> arguments, final int expectedExitValue, final long timeoutMinutes)
+            throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add(MVN_COMMAND);
+        command.addAll(arguments);
+        final Process process = new ProcessBuilder(command)
                 .directory(runDir)
                 .redirectErrorStream(true)
                 .start();
@@ -41,7 +57,7 @@ public class MavenWrapper {
         Executors.newSingleThreadExecutor()
         .submit(() -> new BufferedReader(new InputStreamReader(process.getInputStream())).lines().forEach(stdoutLines::add));
 
-        process.waitFor(1, TimeUnit.MINUTES);
+        process.waitFor(timeoutMinutes, TimeUnit.MINUTES);
 
         FileUtils.writeLines(new File(runDir, "build.log"), stdoutLines);
 
@@ -0,0 +1,99 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin.it;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Runs the plugin on generated reactors of increasing size and checks the time and memory used by the extension against a
+ * budget.
+ * <p>
+ * Only runs if {@code -Dperformance=true} is given. The plugin has to be installed in the local repository, the builds run
+ * offline. All parameters can be overridden by system properties:
+ * <ul>
+ * <li>{@code performance.modules}: comma separated reactor sizes, default {@value #DEFAULT_MODULES}</li>
+ * <li>{@code performance.fanIn}: reactor dependencies per module, default {@value #DEFAULT_FAN_IN}</li>
+ * <li>{@code performance.depth}: number of module layers, default {@value #DEFAULT_DEPTH}</li>
+ * <li>{@code performance.addDownstream}: duplicate to downstream projects, too, default {@code false}</li>
+ * <li>{@code performance.budget.baseMillis} and {@code performance.budget.millisPerModule}: time budget of the extension</li>
+ * <li>{@code performance.budget.baseBytes} and {@code performance.budget.bytesPerModule}: heap allocated by the extension</li>
+ * <li>{@code performance.timeoutMinutes}: timeout of each build, default {@value #DEFAULT_TIMEOUT_MINUTES}</li>
+ * </ul>
+ *
+ * @author mickroll
+ */
+@EnabledIfSystemProperty(named = "performance", matches = "true")
+class PerformanceTest {
+
+    private static final String DEFAULT_MODULES = "100,1000,5000";
+    private static final int DEFAULT_FAN_IN = 3;
+    private static final int DEFAULT_DEPTH = 10;
+    private static final long DEFAULT_TIMEOUT_MINUTES = 30;
+
+    private static final Pattern TOTAL_MILLIS = Pattern.compile("\"totalMillis\": ([0-9.]+)");
+    private static final Pattern ALLOCATED_BYTES = Pattern.compile("\"allocatedBytes\": ([0-9]+)");
+
+    static Stream<SyntheticReactor> reactors() {
+        final int fanIn = Integer.getInteger("performance.fanIn", DEFAULT_FAN_IN);
+        final int depth = Integer.getInteger("performance.depth", DEFAULT_DEPTH);
+        final boolean addDownstream = Boolean.getBoolean("performance.addDownstream");
+        return Arrays.stream(System.getProperty("performance.modules", DEFAULT_MODULES).split(","))
+                .map(String::trim)
+                .map(modules -> new SyntheticReactor(Integer.parseInt(modules), fanIn, depth, addDownstream));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("reactors")
+    void testWithinBudget(final SyntheticReactor reactor) throws Exception {
+        final String projectDir = reactor.generate(MavenWrapper.getBaseDir(), System.getProperty("ddpVersion"));
+        final MavenWrapper maven = new MavenWrapper(projectDir);
+
+        // validate is enough to run the extension, all scopes have to be added to measure the full work
+        maven.run(Arrays.asList("--offline", "--batch-mode", "validate", "-DdependencyDuplicator.metrics",
+                "-DdependencyDuplicator.lifecycleAware=false"), 0,
+                Long.getLong("performance.timeoutMinutes", DEFAULT_TIMEOUT_MINUTES));
+
+        final String metrics = readMetrics(new File(maven.getRunDir(), "target/dependency-duplicator-metrics.json"));
+        final double totalMillis = Double.parseDouble(find(TOTAL_MILLIS, metrics).get(0));
+        final long allocatedBytes = find(ALLOCATED_BYTES, metrics).stream().mapToLong(Long::parseLong).sum();
+        System.out.printf("%s: %.0fms, %d bytes allocated%n", reactor.getName(), totalMillis, allocatedBytes);
+
+        assertThat(totalMillis).as("time used by extension in ms")
+                .isLessThanOrEqualTo(budget("performance.budget.baseMillis", 5_000, "performance.budget.millisPerModule", 5, reactor));
+        assertThat(allocatedBytes).as("heap allocated by extension in bytes")
+                .isLessThanOrEqualTo(budget("performance.budget.baseBytes", 64L << 20, "performance.budget.bytesPerModule", 1L << 20, reactor));
+    }
+
+    private static long budget(final String baseKey, final long defaultBase, final String perModuleKey, final long defaultPerModule,
+            final SyntheticReactor reactor) {
+        return Long.getLong(baseKey, defaultBase) + Long.getLong(perModuleKey, defaultPerModule) * reactor.getModules();
+    }
+
+    private static String readMetrics(final File file) throws IOException {
+        assertThat(file).as("metrics report").exists();
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> find(final Pattern pattern, final String metrics) {
+        final List<String> result = new ArrayList<>();
+        final Matcher matcher = pattern.matcher(metrics);
+        while (matcher.find()) {
+            result.add(matcher.group(1));
+        }
+        assertThat(result).as(pattern.pattern()).isNotEmpty();
+        return result;
+    }
+}
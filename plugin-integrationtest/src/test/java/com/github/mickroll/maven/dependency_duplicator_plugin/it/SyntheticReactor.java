@@ -0,0 +1,175 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin.it;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Generates a multi-module project of arbitrary size, that uses the plugin.
+ * <p>
+ * The modules are distributed evenly over {@code depth} layers, each module depends on {@code fanIn} modules of the layer
+ * above. Every reactor dependency is duplicated as {@code test-jar}, optionally to downstream projects, too, so the extension
+ * has to match and add dependencies on every module. The generated modules have no sources and no external dependencies,
+ * so they can be built offline.
+ *
+ * @author mickroll
+ */
+public class SyntheticReactor {
+
+    public static final String GROUP_ID = "org.example.synthetic";
+    private static final String VERSION = "0.1.0-SNAPSHOT";
+
+    private final int modules;
+    private final int fanIn;
+    private final int depth;
+    private final boolean addDownstream;
+
+    public SyntheticReactor(final int modules, final int fanIn, final int depth, final boolean addDownstream) {
+        if (modules < 1 || fanIn < 0 || depth < 1) {
+            throw new IllegalArgumentException("invalid reactor: modules=" + modules + ", fanIn=" + fanIn + ", depth=" + depth);
+        }
+        this.modules = modules;
+        this.fanIn = fanIn;
+        this.depth = Math.min(depth, modules);
+        this.addDownstream = addDownstream;
+    }
+
+    public String getName() {
+        return "synthetic-" + modules + "-" + fanIn + "-" + depth + (addDownstream ? "-downstream" : "");
+    }
+
+    public int getModules() {
+        return modules;
+    }
+
+    /**
+     * Writes the project to a new subdirectory of the given directory, replacing an existing one.
+     *
+     * @param baseDir parent directory
+     * @param pluginVersion version of the plugin to use
+     * @return subdirectory name, see {@link #getName()}
+     */
+    public String generate(final File baseDir, final String pluginVersion) throws IOException {
+        final Path projectDir = new File(baseDir, getName()).toPath();
+        FileUtils.deleteDirectory(projectDir.toFile());
+        Files.createDirectories(projectDir);
+
+        final StringBuilder moduleList = new StringBuilder();
+        for (int i = 0; i < modules; i++) {
+            moduleList.append("        <module>").append(moduleName(i)).append("</module>\n");
+            final Path moduleDir = projectDir.resolve(moduleName(i));
+            Files.createDirectories(moduleDir);
+            write(moduleDir.resolve("pom.xml"), modulePom(i));
+        }
+        write(projectDir.resolve("pom.xml"), parentPom(moduleList, pluginVersion));
+        return getName();
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+    private int modulesPerLayer() {
+        return (modules + depth - 1) / depth;
+    }
+
+    /**
+     * @return indexes of the modules the given module depends on
+     */
+    SortedSet<Integer> dependencies(final int module) {
+        final SortedSet<Integer> result = new TreeSet<>();
+        final int layer = module / modulesPerLayer();
+        if (layer == 0) {
+            return result;
+        }
+        final int firstOfLayerAbove = (layer - 1) * modulesPerLayer();
+        final int sizeOfLayerAbove = modulesPerLayer();
+        final Random random = new Random(module);
+        while (result.size() < Math.min(fanIn, sizeOfLayerAbove)) {
+            result.add(firstOfLayerAbove + random.nextInt(sizeOfLayerAbove));
+        }
+        return result;
+    }
+
+    private static String moduleName(final int module) {
+        return String.format("module-%05d", module);
+    }
+
+    private String modulePom(final int module) {
+        final StringBuilder pom = new StringBuilder();
+        pom.append(header());
+        pom.append("    <parent>\n");
+        pom.append("        <groupId>").append(GROUP_ID).append("</groupId>\n");
+        pom.append("        <artifactId>parent</artifactId>\n");
+        pom.append("        <version>").append(VERSION).append("</version>\n");
+        pom.append("    </parent>\n\n");
+        pom.append("    <artifactId>").append(moduleName(module)).append("</artifactId>\n");
+        pom.append("    <packaging>jar</packaging>\n\n");
+        pom.append("    <dependencies>\n");
+        for (final int dependency : dependencies(module)) {
+            pom.append("        <dependency>\n");
+            pom.append("            <groupId>").append(GROUP_ID).append("</groupId>\n");
+            pom.append("            <artifactId>").append(moduleName(dependency)).append("</artifactId>\n");
+            pom.append("            <version>").append(VERSION).append("</version>\n");
+            pom.append("        </dependency>\n");
+        }
+        pom.append("    </dependencies>\n");
+        pom.append("</project>\n");
+        return pom.toString();
+    }
+
+    private String parentPom(final CharSequence moduleList, final String pluginVersion) {
+        final StringBuilder pom = new StringBuilder();
+        pom.append(header());
+        pom.append("    <groupId>").append(GROUP_ID).append("</groupId>\n");
+        pom.append("    <artifactId>parent</artifactId>\n");
+        pom.append("    <packaging>pom</packaging>\n");
+        pom.append("    <version>").append(VERSION).append("</version>\n\n");
+        pom.append("    <name>").append(getName()).append("</name>\n\n");
+        pom.append("    <modules>\n").append(moduleList).append("    </modules>\n\n");
+        pom.append("    <build>\n");
+        pom.append("        <plugins>\n");
+        pom.append("            <plugin>\n");
+        pom.append("                <groupId>com.github.madprogger</groupId>\n");
+        pom.append("                <artifactId>dependency-duplicator-plugin</artifactId>\n");
+        pom.append("                <version>").append(pluginVersion).append("</version>\n");
+        pom.append("                <extensions>true</extensions>\n");
+        pom.append("                <configuration>\n");
+        pom.append("                    <duplications>\n");
+        pom.append("                        <duplication>\n");
+        pom.append("                            <dependencyKeys>\n");
+        pom.append("                                <dependencyKey>").append(GROUP_ID.replace(".", "\\.")).append(":module-.*:jar</dependencyKey>\n");
+        pom.append("                            </dependencyKeys>\n");
+        pom.append("                            <targetScope>test</targetScope>\n");
+        pom.append("                            <targetType>test-jar</targetType>\n");
+        pom.append("                            <addDownstream>").append(addDownstream).append("</addDownstream>\n");
+        pom.append("                        </duplication>\n");
+        pom.append("                    </duplications>\n");
+        pom.append("                </configuration>\n");
+        pom.append("            </plugin>\n");
+        pom.append("        </plugins>\n");
+        pom.append("    </build>\n");
+        pom.append("</project>\n");
+        return pom.toString();
+    }
+
+    private static String header() {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\"\n"
+                + "    xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
+                + "    xsi:schemaLocation=\"http://maven.apache.org/POM/4.0.0 http://maven.apache.org/xsd/maven-4.0.0.xsd\">\n"
+                + "    <modelVersion>4.0.0</modelVersion>\n\n";
+    }
+
+    private static void write(final Path file, final String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.RepositoryUtils;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionMetrics.Counter;
+
+/**
+ * Resolves the artifacts of all planned dependencies outside of the reactor up front, before any project is built.
+ * <p>
+ * Maven resolves dependencies lazily, one project at a time, when a project reaches a phase that requires them. Resolving all
+ * added artifacts concurrently right after planning fills the local repository in one go and reports missing artifacts before
+ * the first project is built, instead of failing somewhere within the reactor. The repository session of the build is used, so
+ * offline builds resolve against the local repository.
+ * <p>
+ * Artifacts of reactor projects, dependencies using a version range and dependencies of scope {@code system} are left to
+ * Maven.
+ *
+ * @author mickroll
+ */
+public class ArtifactPrefetcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ArtifactPrefetcher.class);
+
+    /**
+     * Resolves the added dependencies outside of the reactor right after planning.
+     */
+    public static final String ENABLED = ExtensionSettings.PREFIX + "prefetch";
+
+    /**
+     * Set to {@code false} to only log artifacts that could not be resolved up front, instead of failing the build.
+     */
+    public static final String FAIL_ON_MISSING = ExtensionSettings.PREFIX + "prefetch.failOnMissing";
+
+    private static final String REQUEST_CONTEXT = "dependency-duplicator";
+
+    private final RepositorySystem repositorySystem;
+    private final RepositorySystemSession repositorySession;
+    private final int threads;
+    private final ExtensionMetrics metrics;
+
+    /**
+     * @param repositorySystem repository system
+     * @param repositorySession repository session of the build
+     * @param threads maximum number of artifacts resolved at the same time
+     * @param metrics metrics of the current run
+     */
+    public ArtifactPrefetcher(final RepositorySystem repositorySystem, final RepositorySystemSession repositorySession, final int threads,
+            final ExtensionMetrics metrics) {
+        this.repositorySystem = repositorySystem;
+        this.repositorySession = repositorySession;
+        this.threads = threads;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Resolves the artifacts of all dependencies in the plan, that do not belong to the reactor.
+     *
+     * @param plan planned dependencies
+     * @param reactorProjects all projects of the reactor
+     * @return artifacts that could not be resolved, with the reason, in plan order
+     */
+    public Map<Artifact, ArtifactResolutionException> prefetch(final DuplicationPlan plan, final Collection<MavenProject> reactorProjects) {
+        final List<ArtifactRequest> requests = requests(plan, reactorProjects);
+        final Map<Artifact, ArtifactResolutionException> result = new LinkedHashMap<>();
+        if (requests.isEmpty()) {
+            return result;
+        }
+        final int poolSize = Math.max(1, Math.min(threads, requests.size()));
+        LOG.debug("resolving {} artifacts using {} threads", requests.size(), poolSize);
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            final Thread thread = new Thread(runnable, "dependency-duplicator-prefetch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(contextClassLoader);
+            return thread;
+        });
+        try {
+            final List<CompletableFuture<ArtifactResolutionException>> failures = new ArrayList<>(requests.size());
+            for (final ArtifactRequest request : requests) {
+                failures.add(CompletableFuture.supplyAsync(() -> resolve(request), executor));
+            }
+            for (int i = 0; i < requests.size(); i++) {
+                final ArtifactResolutionException failure = failures.get(i).join();
+                if (failure != null) {
+                    result.put(requests.get(i).getArtifact(), failure);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        metrics.add(Counter.ARTIFACTS_MISSING, result.size());
+        return result;
+    }
+
+    private ArtifactResolutionException resolve(final ArtifactRequest request) {
+        try {
+            repositorySystem.resolveArtifact(repositorySession, request);
+            metrics.increment(Counter.ARTIFACTS_PREFETCHED);
+            return null;
+        } catch (final ArtifactResolutionException e) {
+            return e;
+        }
+    }
+
+    /**
+     * @return one request per distinct artifact outside of the reactor, using the repositories of all projects receiving it
+     */
+    List<ArtifactRequest> requests(final DuplicationPlan plan, final Collection<MavenProject> reactorProjects) {
+        final Set<String> reactorArtifacts = new HashSet<>();
+        for (final MavenProject project : reactorProjects) {
+            reactorArtifacts.add(project.getGroupId() + ':' + project.getArtifactId() + ':' + project.getVersion());
+        }
+        // keyed by coordinates, the type of an artifact does not matter for resolution
+        final Map<String, ArtifactRequest> result = new LinkedHashMap<>();
+        for (final MavenProject project : plan.getProjects()) {
+            for (final Dependency dependency : plan.getDependencies(project)) {
+                if (reactorArtifacts.contains(dependency.getGroupId() + ':' + dependency.getArtifactId() + ':' + dependency.getVersion())
+                        || !isResolvable(dependency)) {
+                    continue;
+                }
+                final Artifact artifact = RepositoryUtils.toDependency(dependency, repositorySession.getArtifactTypeRegistry()).getArtifact();
+                final ArtifactRequest request = result.computeIfAbsent(artifact.toString(),
+                        coordinates -> new ArtifactRequest(artifact, new ArrayList<>(), REQUEST_CONTEXT));
+                if (project.getRemoteProjectRepositories() != null) {
+                    for (final RemoteRepository repository : project.getRemoteProjectRepositories()) {
+                        if (!request.getRepositories().contains(repository)) {
+                            request.addRepository(repository);
+                        }
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    private static boolean isResolvable(final Dependency dependency) {
+        final String version = dependency.getVersion();
+        if (version == null || version.isEmpty() || version.startsWith("[") || version.startsWith("(") || "system".equals(dependency.getScope())) {
+            LOG.debug("leaving resolution of {} to maven", dependency.getManagementKey());
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,226 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Files changed since some earlier state of the sources, used to only add duplicated dependencies to projects that are affected
+ * by a change.
+ * <p>
+ * A project is changed, if a changed file lies within its base directory (and not within the base directory of one of its
+ * modules). For projects with packaging {@code pom}, only a change of the POM file itself counts. A project is affected, if it
+ * or any of its (transitive) upstream projects, including parents, changed. Changes that cannot be attributed to a project
+ * (files outside of all projects, files within {@code .mvn}) affect all projects.
+ *
+ * @author mickroll
+ */
+public class ChangeSet {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeSet.class);
+
+    /**
+     * Comma separated list of changed files or directories, relative to the multi module project directory or absolute.
+     */
+    public static final String CHANGED_PATHS = ExtensionSettings.PREFIX + "changedPaths";
+
+    /**
+     * Git revision to compare the working tree of the multi module project directory with, to determine the changed files,
+     * e.g. {@code origin/main}. Ignored, if {@link #CHANGED_PATHS} is given.
+     */
+    public static final String CHANGED_SINCE = ExtensionSettings.PREFIX + "changedSince";
+
+    private final Path baseDirectory;
+    private final List<Path> paths;
+
+    /**
+     * @param baseDirectory multi module project directory, relative paths are resolved against it
+     * @param paths changed paths
+     */
+    ChangeSet(final Path baseDirectory, final List<String> paths) {
+        this.baseDirectory = baseDirectory.toAbsolutePath().normalize();
+        this.paths = new ArrayList<>(paths.size());
+        for (final String path : paths) {
+            this.paths.add(this.baseDirectory.resolve(path).normalize());
+        }
+    }
+
+    /**
+     * @return change set of the given session, empty if none is configured or it could not be determined
+     */
+    public static Optional<ChangeSet> of(final MavenSession session, final ExtensionSettings settings) {
+        final String changedPaths = settings.get(CHANGED_PATHS);
+        final String changedSince = settings.get(CHANGED_SINCE);
+        if (changedPaths == null && (changedSince == null || changedSince.trim().isEmpty())) {
+            return Optional.empty();
+        }
+        final Optional<Path> baseDirectory = baseDirectory(session);
+        if (!baseDirectory.isPresent()) {
+            LOG.warn("unable to determine the project directory, ignoring the change set");
+            return Optional.empty();
+        }
+        if (changedPaths != null) {
+            final List<String> paths = new ArrayList<>();
+            for (final String path : changedPaths.split(",")) {
+                if (!path.trim().isEmpty()) {
+                    paths.add(path.trim());
+                }
+            }
+            return Optional.of(new ChangeSet(baseDirectory.get(), paths));
+        }
+        try {
+            final List<String> paths = changedFiles(baseDirectory.get(), changedSince.trim());
+            LOG.debug("{} files changed since {}", paths.size(), changedSince.trim());
+            return Optional.of(new ChangeSet(baseDirectory.get(), paths));
+        } catch (final IOException e) {
+            LOG.warn("unable to determine files changed since {}, adding dependencies to all projects: {}", changedSince.trim(), e.getMessage());
+            return Optional.empty();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("interrupted while determining files changed since {}, adding dependencies to all projects", changedSince.trim());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Determines the projects affected by this change set.
+     *
+     * @param reactorGraph unfiltered dependency graph of the reactor
+     * @param allProjects all projects of the reactor
+     * @return affected projects, empty if the change set cannot be attributed to projects and all projects are affected
+     */
+    public Optional<Set<MavenProject>> getAffectedProjects(final ProjectDependencyGraph reactorGraph, final List<MavenProject> allProjects) {
+        final Map<Path, MavenProject> projectsByDirectory = new HashMap<>();
+        for (final MavenProject project : allProjects) {
+            if (project.getBasedir() != null) {
+                projectsByDirectory.put(project.getBasedir().toPath().toAbsolutePath().normalize(), project);
+            }
+        }
+        final Path mvnDirectory = baseDirectory.resolve(".mvn");
+        final Set<MavenProject> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final Path path : paths) {
+            if (path.startsWith(mvnDirectory)) {
+                LOG.info("{} changed, adding dependencies to all projects", baseDirectory.relativize(path));
+                return Optional.empty();
+            }
+            final Optional<MavenProject> project = findProject(projectsByDirectory, path);
+            if (!project.isPresent()) {
+                LOG.info("{} does not belong to any project, adding dependencies to all projects", path);
+                return Optional.empty();
+            }
+            if (isChange(project.get(), path) && result.add(project.get())) {
+                LOG.debug("[{}] changed: {}", project.get().getName(), path);
+            }
+        }
+        for (final MavenProject changed : new ArrayList<>(result)) {
+            result.addAll(reactorGraph.getDownstreamProjects(changed, true));
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * @return the project with the deepest base directory containing the given path
+     */
+    private static Optional<MavenProject> findProject(final Map<Path, MavenProject> projectsByDirectory, final Path path) {
+        for (Path directory = path; directory != null; directory = directory.getParent()) {
+            final MavenProject project = projectsByDirectory.get(directory);
+            if (project != null) {
+                return Optional.of(project);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isChange(final MavenProject project, final Path path) {
+        if (!"pom".equals(project.getPackaging())) {
+            return true;
+        }
+        return project.getFile() != null && project.getFile().toPath().toAbsolutePath().normalize().equals(path);
+    }
+
+    private static Optional<Path> baseDirectory(final MavenSession session) {
+        if (session.getRequest() != null && session.getRequest().getMultiModuleProjectDirectory() != null) {
+            return Optional.of(session.getRequest().getMultiModuleProjectDirectory().toPath());
+        }
+        final MavenProject topLevelProject = session.getTopLevelProject();
+        return topLevelProject != null && topLevelProject.getBasedir() != null
+                ? Optional.of(topLevelProject.getBasedir().toPath())
+                : Optional.empty();
+    }
+
+    /**
+     * Determines the files in the given directory, that differ between the working tree and the given revision, including
+     * untracked files that are not ignored. Renamed files are reported with their old and new path.
+     *
+     * @return changed files, relative to the given directory
+     */
+    static List<String> changedFiles(final Path directory, final String revision) throws IOException, InterruptedException {
+        final List<String> result = new ArrayList<>();
+        result.addAll(git(directory, "diff", "--name-only", "--relative", "--no-renames", revision, "--", "."));
+        result.addAll(git(directory, "ls-files", "--others", "--exclude-standard", "--", "."));
+        return result;
+    }
+
+    /**
+     * Runs git in the given directory.
+     *
+     * @return lines written to standard out
+     * @throws IOException if git cannot be started or fails
+     */
+    static List<String> git(final Path directory, final String... arguments) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(arguments));
+        final Process process = new ProcessBuilder(command).directory(directory.toFile()).start();
+        process.getOutputStream().close();
+        final CompletableFuture<String> error = CompletableFuture.supplyAsync(() -> read(process.getErrorStream()));
+        final String output = read(process.getInputStream());
+        final int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IOException(String.join(" ", command) + " failed with exit code " + exitCode + ": " + error.join().trim());
+        }
+        final List<String> result = new ArrayList<>();
+        for (final String line : output.split("\\R")) {
+            if (!line.isEmpty()) {
+                result.add(line);
+            }
+        }
+        return result;
+    }
+
+    private static String read(final InputStream in) {
+        try {
+            final ByteArrayOutputStream result = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                result.write(buffer, 0, read);
+            }
+            return new String(result.toByteArray(), StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    List<Path> getPaths() {
+        return Collections.unmodifiableList(paths);
+    }
+}
@@ -1,64 +1,282 @@
 package com.github.mickroll.maven.dependency_duplicator_plugin;
 
 import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.inject.Inject;
 
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.execution.ProjectDependencyGraph;
-import org.apache.maven.project.DuplicateProjectException;
+import org.apache.maven.graph.GraphBuilder;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.building.Result;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectSorter;
-import org.codehaus.plexus.util.dag.CycleDetectedException;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Helps rebuilding the dependency graph.
+ * Helps checking and building the dependency graph.
  * <p>
- * TODO #3: build graph using GraphBuilder, as soon as available (needs maven 3.7.0, see https://github.com/apache/maven/pull/368 ).
+ * Reactor edges introduced by new dependencies are only checked, Maven builds the graph again from the changed projects after all
+ * lifecycle participants ran. Where a graph is needed earlier, Maven's own {@link GraphBuilder} is used, where it is available to
+ * build extensions (Maven 3.7.0+, see https://github.com/apache/maven/pull/368 ). The graph of the session is never changed.
  *
  * @author mickroll
  */
 public class DependencyGraphBuilder {
     private static final Logger LOG = LoggerFactory.getLogger(DependencyGraphBuilder.class);
 
-    public void rebuildDependencyGraph(final MavenSession session) {
-        final ProjectDependencyGraph graph = session.getProjectDependencyGraph();
-        final ProjectSorter newSorter;
+    @Inject
+    private PlexusContainer container;
+
+    private static final String DEFAULT_GRAPH = "org.apache.maven.graph.DefaultProjectDependencyGraph";
+    private static final String FILTERED_GRAPH = "org.apache.maven.graph.FilteredProjectDependencyGraph";
+
+    /**
+     * Determines the direct upstream projects of all projects of the reactor at once.
+     * <p>
+     * {@link ProjectDependencyGraph#getUpstreamProjects(MavenProject, boolean)} scans the whole build order on every call, so the
+     * sorter of Maven's graph is queried directly, if accessible. It is only read.
+     *
+     * @param reactorGraph unfiltered dependency graph of the reactor
+     * @return direct upstream projects per project, in no particular order
+     */
+    public static Map<MavenProject, List<MavenProject>> getDirectUpstreamProjects(final ProjectDependencyGraph reactorGraph) {
+        final Map<MavenProject, List<MavenProject>> result = new IdentityHashMap<>();
+        final Object sorter = DEFAULT_GRAPH.equals(reactorGraph.getClass().getName()) ? readField(reactorGraph, "sorter") : null;
+        if (sorter instanceof ProjectSorter) {
+            final ProjectSorter projectSorter = (ProjectSorter) sorter;
+            final Map<String, MavenProject> projectMap = projectSorter.getProjectMap();
+            for (final MavenProject project : projectSorter.getSortedProjects()) {
+                final List<String> upstreamIds = projectSorter.getDependencies(ProjectSorter.getId(project));
+                final List<MavenProject> upstreamProjects = new ArrayList<>(upstreamIds.size());
+                for (final String upstreamId : upstreamIds) {
+                    final MavenProject upstream = projectMap.get(upstreamId);
+                    if (upstream != null) {
+                        upstreamProjects.add(upstream);
+                    }
+                }
+                result.put(project, upstreamProjects);
+            }
+            return result;
+        }
+        for (final MavenProject project : reactorGraph.getSortedProjects()) {
+            result.put(project, reactorGraph.getUpstreamProjects(project, false));
+        }
+        return result;
+    }
+
+    /**
+     * Builds the dependency graph of the session using Maven's {@link GraphBuilder} and sets it to the session. If the session
+     * already is restricted to some projects (e.g. using {@code -pl}), only these are sorted.
+     *
+     * @param session current session
+     * @return {@code true}, if the graph was built, {@code false} if {@link GraphBuilder} is not available or failed
+     */
+    public boolean buildDependencyGraph(final MavenSession session) {
+        final Optional<ProjectDependencyGraph> graph = newDependencyGraph(session);
+        graph.ifPresent(session::setProjectDependencyGraph);
+        return graph.isPresent();
+    }
+
+    /**
+     * Builds the dependency graph of the session using Maven's {@link GraphBuilder}, like Maven does after all lifecycle
+     * participants ran, without setting it to the session.
+     *
+     * @param session current session
+     * @return new graph, empty if {@link GraphBuilder} is not available or failed
+     */
+    public Optional<ProjectDependencyGraph> newDependencyGraph(final MavenSession session) {
+        final GraphBuilder graphBuilder;
         try {
-            newSorter = new ProjectSorter(graph.getAllProjects());
-        } catch (CycleDetectedException | DuplicateProjectException e) {
-            LOG.error("unable to rebuild project dependency graph", e);
-            return;
+            graphBuilder = container.lookup(GraphBuilder.class);
+        } catch (final ComponentLookupException | LinkageError e) {
+            LOG.debug("GraphBuilder not available", e);
+            return Optional.empty();
+        }
+        final Result<? extends ProjectDependencyGraph> result = graphBuilder.build(session);
+        if (result.hasErrors() || result.get() == null) {
+            LOG.warn("unable to build project dependency graph: {}", result.getProblems());
+            return Optional.empty();
         }
+        return Optional.of(result.get());
+    }
 
-        if ("org.apache.maven.graph.DefaultProjectDependencyGraph".equals(graph.getClass().getName())) {
-            replaceProjectSorter(graph, "sorter", newSorter);
-        } else if ("org.apache.maven.graph.FilteredProjectDependencyGraph".equals(graph.getClass().getName())) {
+    /**
+     * Determines the unfiltered graph of the whole reactor, e.g. if the build is restricted using {@code -pl}.
+     *
+     * @param graph graph of the current session
+     * @return unfiltered graph, or {@code graph} itself if it is not filtered or the unfiltered graph is inaccessible
+     */
+    public ProjectDependencyGraph getReactorGraph(final ProjectDependencyGraph graph) {
+        if (FILTERED_GRAPH.equals(graph.getClass().getName())) {
             try {
                 final Field field = graph.getClass().getDeclaredField("projectDependencyGraph");
                 field.setAccessible(true);
-                final Object nestedGraph = field.get(graph);
-                if ("org.apache.maven.graph.DefaultProjectDependencyGraph".equals(nestedGraph.getClass().getName())) {
-                    replaceProjectSorter(nestedGraph, "sorter", newSorter);
-                } else {
-                    LOG.warn(
-                            "unable to rebuild project dependency graph, unexpected nested graph implementation found in {}: {}",
-                            graph.getClass().getName(), nestedGraph.getClass().getName());
-                }
+                return (ProjectDependencyGraph) field.get(graph);
             } catch (IllegalArgumentException | IllegalAccessException | NoSuchFieldException | SecurityException e) {
-                LOG.error("unable to set rebuilt project dependency graph", e);
+                LOG.warn("unable to access unfiltered project dependency graph, using filtered graph", e);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Finds the edges {@code [dependent, dependency]} between reactor projects, that are introduced by the new dependencies.
+     * Dependencies on direct or transitive upstream projects do not introduce an edge, they cannot change the build order.
+     * <p>
+     * The graph itself is not changed: Maven builds it again from the changed projects after all lifecycle participants ran.
+     *
+     * @param upstreamProjects direct upstream projects per project, see {@link #getDirectUpstreamProjects(ProjectDependencyGraph)}
+     * @param newProjectDependencies dependencies that were added to the projects
+     * @return new edges, empty if a new dependency refers to a reactor project without a specific version
+     */
+    static Optional<List<String[]>> findNewEdges(final Map<MavenProject, List<MavenProject>> upstreamProjects,
+            final DuplicationPlan newProjectDependencies) {
+        final Map<String, MavenProject> projectMap = new HashMap<>();
+        final Set<String> reactorArtifacts = new HashSet<>();
+        for (final MavenProject project : upstreamProjects.keySet()) {
+            projectMap.put(ProjectSorter.getId(project), project);
+            reactorArtifacts.add(project.getGroupId() + ":" + project.getArtifactId());
+        }
+
+        final Map<MavenProject, Set<MavenProject>> allUpstreamProjects = new HashMap<>();
+        final Set<String> seen = new HashSet<>();
+        final List<String[]> result = new ArrayList<>();
+        for (final MavenProject project : newProjectDependencies.getProjects()) {
+            final String from = ProjectSorter.getId(project);
+            final Set<MavenProject> existing = getAllUpstreamProjects(project, upstreamProjects, allUpstreamProjects);
+            for (final Dependency dependency : newProjectDependencies.getDependencies(project)) {
+                if (!reactorArtifacts.contains(dependency.getGroupId() + ":" + dependency.getArtifactId())) {
+                    continue;
+                }
+                if (!isSpecificVersion(dependency.getVersion())) {
+                    return Optional.empty();
+                }
+                final String to = dependency.getGroupId() + ":" + dependency.getArtifactId() + ":" + dependency.getVersion();
+                final MavenProject upstream = projectMap.get(to);
+                if (upstream == null || upstream == project || existing.contains(upstream) || !seen.add(from + "->" + to)) {
+                    continue;
+                }
+                result.add(new String[] { from, to });
+            }
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * @param memo upstream projects of each project already visited, the graph is free of cycles
+     * @return direct and transitive upstream projects of {@code project}
+     */
+    private static Set<MavenProject> getAllUpstreamProjects(final MavenProject project,
+            final Map<MavenProject, List<MavenProject>> upstreamProjects, final Map<MavenProject, Set<MavenProject>> memo) {
+        Set<MavenProject> result = memo.get(project);
+        if (result == null) {
+            result = new HashSet<>();
+            for (final MavenProject upstream : upstreamProjects.getOrDefault(project, Collections.emptyList())) {
+                if (result.add(upstream)) {
+                    result.addAll(getAllUpstreamProjects(upstream, upstreamProjects, memo));
+                }
+            }
+            memo.put(project, result);
+        }
+        return result;
+    }
+
+    private static boolean isSpecificVersion(final String version) {
+        return version != null && !version.isEmpty() && !version.startsWith("[") && !version.startsWith("(");
+    }
+
+    /**
+     * Checks, if the graph including the new edges can still be sorted.
+     *
+     * @param upstreamProjects direct upstream projects per project, see {@link #getDirectUpstreamProjects(ProjectDependencyGraph)}
+     * @param newEdges edges {@code [dependent, dependency]} found by {@link #findNewEdges(Map, DuplicationPlan)}
+     * @return ids of the projects that are part of a cycle, sorted, empty if there is no cycle
+     */
+    static List<String> findCycle(final Map<MavenProject, List<MavenProject>> upstreamProjects, final List<String[]> newEdges) {
+        final Map<String, List<String>> upstream = new HashMap<>();
+        final Map<String, List<String>> dependents = new HashMap<>();
+        for (final Entry<MavenProject, List<MavenProject>> entry : upstreamProjects.entrySet()) {
+            final String id = ProjectSorter.getId(entry.getKey());
+            upstream.computeIfAbsent(id, dependentId -> new ArrayList<>());
+            for (final MavenProject upstreamProject : entry.getValue()) {
+                addEdge(upstream, dependents, id, ProjectSorter.getId(upstreamProject));
+            }
+        }
+        for (final String[] edge : newEdges) {
+            addEdge(upstream, dependents, edge[0], edge[1]);
+        }
+
+        // Kahn's algorithm, projects left over are part of a cycle or depend on one
+        final Set<String> left = removeSorted(upstream.keySet(), upstream, dependents);
+        // the same in reverse on the projects left over, drops those only depending on a cycle
+        final List<String> result = new ArrayList<>(removeSorted(left, dependents, upstream));
+        Collections.sort(result);
+        return result;
+    }
+
+    private static void addEdge(final Map<String, List<String>> upstream, final Map<String, List<String>> dependents, final String from,
+            final String to) {
+        upstream.computeIfAbsent(from, id -> new ArrayList<>()).add(to);
+        dependents.computeIfAbsent(to, id -> new ArrayList<>()).add(from);
+    }
+
+    /**
+     * @return the given projects, that cannot be sorted by repeatedly removing a project without open {@code incoming} edges
+     */
+    private static Set<String> removeSorted(final Set<String> projects, final Map<String, List<String>> incoming,
+            final Map<String, List<String>> outgoing) {
+        final Map<String, Integer> open = new HashMap<>();
+        for (final String id : projects) {
+            int count = 0;
+            for (final String other : incoming.getOrDefault(id, Collections.emptyList())) {
+                if (projects.contains(other)) {
+                    count++;
+                }
+            }
+            open.put(id, count);
+        }
+        final Deque<String> ready = new ArrayDeque<>();
+        open.forEach((id, count) -> {
+            if (count == 0) {
+                ready.add(id);
+            }
+        });
+        while (!ready.isEmpty()) {
+            final String id = ready.poll();
+            open.remove(id);
+            for (final String other : outgoing.getOrDefault(id, Collections.emptyList())) {
+                if (open.containsKey(other) && open.merge(other, -1, Integer::sum) == 0) {
+                    ready.add(other);
+                }
             }
-        } else {
-            LOG.warn("unable to rebuild project dependency graph, unexpected graph implementation found: {}", graph.getClass().getName());
         }
+        return open.keySet();
     }
 
-    private void replaceProjectSorter(final Object obj, final String fieldName, final ProjectSorter newSorter) {
+    private static Object readField(final Object obj, final String fieldName) {
         try {
             final Field field = obj.getClass().getDeclaredField(fieldName);
             field.setAccessible(true);
-            field.set(obj, newSorter);
+            return field.get(obj);
         } catch (IllegalArgumentException | IllegalAccessException | NoSuchFieldException | SecurityException e) {
-            LOG.error("unable to set rebuilt project dependency graph", e);
+            LOG.debug("unable to read field {} of {}", fieldName, obj.getClass().getName(), e);
+            return null;
         }
     }
 }
@@ -0,0 +1,176 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+
+/**
+ * Immutable canonical key of a {@link Dependency}, providing the {@link Object#equals(Object)} and {@link Object#hashCode()}
+ * that {@link Dependency} lacks.
+ * <p>
+ * Two dependencies have equal keys, if groupId, artifactId, version, classifier, scope, type, optional flag and the set of
+ * excluded {@code groupId:artifactId} are equal. The system path is only kept to {@link #toDependency() re-create} the dependency.
+ *
+ * @author mickroll
+ */
+public final class DependencyKey {
+
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final String classifier;
+    private final String scope;
+    private final String type;
+    private final String optional;
+    private final String systemPath;
+    private final List<String> exclusions;
+    private final int hashCode;
+
+    private DependencyKey(final Dependency dependency) {
+        this.groupId = dependency.getGroupId();
+        this.artifactId = dependency.getArtifactId();
+        this.version = dependency.getVersion();
+        this.classifier = dependency.getClassifier();
+        this.scope = dependency.getScope();
+        this.type = dependency.getType();
+        this.optional = dependency.getOptional();
+        this.systemPath = dependency.getSystemPath();
+        this.exclusions = sortedExclusions(dependency.getExclusions());
+        this.hashCode = Objects.hash(groupId, artifactId, version, classifier, scope, type, optional, exclusions);
+    }
+
+    private DependencyKey(final DependencyKey source, final String classifier, final String scope, final String type) {
+        this.groupId = source.groupId;
+        this.artifactId = source.artifactId;
+        this.version = source.version;
+        this.classifier = classifier;
+        this.scope = scope;
+        this.type = type;
+        this.optional = source.optional;
+        this.systemPath = source.systemPath;
+        this.exclusions = source.exclusions;
+        this.hashCode = Objects.hash(groupId, artifactId, version, classifier, scope, type, optional, exclusions);
+    }
+
+    public static DependencyKey of(final Dependency dependency) {
+        return new DependencyKey(dependency);
+    }
+
+    /**
+     * Creates the key of a copy of the dependency with the given values replaced.
+     *
+     * @param newClassifier new classifier, {@code null} to keep the classifier
+     * @param newScope new scope, {@code null} to keep the scope
+     * @param newType new type, {@code null} to keep the type
+     * @return key of the copy
+     */
+    public DependencyKey with(final String newClassifier, final String newScope, final String newType) {
+        return new DependencyKey(this,
+                newClassifier != null ? newClassifier : classifier,
+                newScope != null ? newScope : scope,
+                newType != null ? newType : type);
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return classifier, {@code null} if none
+     */
+    public String getClassifier() {
+        return classifier;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return scope, {@code null} for the default scope
+     */
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * @return new dependency with the values of this key, exclusions are sorted
+     */
+    public Dependency toDependency() {
+        final Dependency result = new Dependency();
+        result.setGroupId(groupId);
+        result.setArtifactId(artifactId);
+        result.setVersion(version);
+        result.setType(type);
+        result.setClassifier(classifier);
+        result.setScope(scope);
+        result.setOptional(optional);
+        result.setSystemPath(systemPath);
+        for (final String excluded : exclusions) {
+            final int separator = excluded.indexOf(':');
+            final Exclusion exclusion = new Exclusion();
+            exclusion.setGroupId(excluded.substring(0, separator));
+            exclusion.setArtifactId(excluded.substring(separator + 1));
+            result.addExclusion(exclusion);
+        }
+        return result;
+    }
+
+    private static List<String> sortedExclusions(final List<Exclusion> exclusions) {
+        if (exclusions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final SortedSet<String> result = new TreeSet<>();
+        for (final Exclusion exclusion : exclusions) {
+            result.add(exclusion.getGroupId() + ":" + exclusion.getArtifactId());
+        }
+        return Collections.unmodifiableList(new ArrayList<>(result));
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DependencyKey)) {
+            return false;
+        }
+        final DependencyKey other = (DependencyKey) obj;
+        return hashCode == other.hashCode
+                && Objects.equals(groupId, other.groupId)
+                && Objects.equals(artifactId, other.artifactId)
+                && Objects.equals(version, other.version)
+                && Objects.equals(classifier, other.classifier)
+                && Objects.equals(scope, other.scope)
+                && Objects.equals(type, other.type)
+                && Objects.equals(optional, other.optional)
+                && exclusions.equals(other.exclusions);
+    }
+
+    @Override
+    public String toString() {
+        return groupId + ":" + artifactId + ":" + type + (classifier != null ? ":" + classifier : "") + ":" + version
+                + (scope != null ? ":" + scope : "")
+                + (optional != null ? " optional=" + optional : "")
+                + (exclusions.isEmpty() ? "" : " exclusions=" + exclusions);
+    }
+}
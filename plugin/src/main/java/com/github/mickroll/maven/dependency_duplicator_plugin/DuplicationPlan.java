@@ -0,0 +1,216 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * New dependencies of each project.
+ * <p>
+ * Each distinct dependency (see {@link DependencyKey}) is stored once and referenced by an integer id from all projects that
+ * receive it. The {@link Dependency} objects are created from their keys on first access and shared between all of these
+ * projects, like the dependencies configured in {@code additionalDependencies} always were.
+ *
+ * @author mickroll
+ */
+public class DuplicationPlan {
+
+    private final List<PlannedDependency> dependencies;
+    private final Dependency[] materialized;
+    private final List<MavenProject> projects;
+    private final Map<MavenProject, int[]> dependencyIds;
+    private final Map<MavenProject, String[]> dependencyRules;
+
+    private DuplicationPlan(final Builder builder) {
+        this.dependencies = builder.dependencies;
+        this.materialized = new Dependency[dependencies.size()];
+        this.projects = Collections.unmodifiableList(builder.projects);
+        this.dependencyIds = builder.dependencyIds;
+        this.dependencyRules = builder.dependencyRules;
+    }
+
+    public boolean isEmpty() {
+        return projects.isEmpty();
+    }
+
+    /**
+     * @return projects with new dependencies, in the order they were planned
+     */
+    public List<MavenProject> getProjects() {
+        return projects;
+    }
+
+    /**
+     * @return new dependencies of the given project, in the order they were planned
+     */
+    public List<Dependency> getDependencies(final MavenProject project) {
+        final int[] ids = dependencyIds.get(project);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        final List<Dependency> result = new ArrayList<>(ids.length);
+        for (final int id : ids) {
+            Dependency dependency = materialized[id];
+            if (dependency == null) {
+                dependency = dependencies.get(id).materialize();
+                materialized[id] = dependency;
+            }
+            result.add(dependency);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public int getDependencyCount(final MavenProject project) {
+        final int[] ids = dependencyIds.get(project);
+        return ids == null ? 0 : ids.length;
+    }
+
+    /**
+     * @return number of distinct dependencies in the plan
+     */
+    public int getDistinctDependencyCount() {
+        return dependencies.size();
+    }
+
+    /**
+     * @param filter decides, which dependencies are kept
+     * @return plan with only the dependencies accepted by the filter, projects without remaining dependencies are omitted
+     */
+    public DuplicationPlan retain(final Predicate<DependencyKey> filter) {
+        final Builder result = builder();
+        final int[] newIds = new int[dependencies.size()];
+        for (int id = 0; id < newIds.length; id++) {
+            newIds[id] = filter.test(dependencies.get(id).getKey()) ? result.intern(dependencies.get(id)) : -1;
+        }
+        for (final MavenProject project : projects) {
+            final int[] ids = dependencyIds.get(project);
+            final String[] rules = dependencyRules.get(project);
+            final int[] projectIds = new int[ids.length];
+            final String[] projectRules = rules != null ? new String[ids.length] : null;
+            int size = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (newIds[ids[i]] >= 0) {
+                    if (rules != null) {
+                        projectRules[size] = rules[i];
+                    }
+                    projectIds[size++] = newIds[ids[i]];
+                }
+            }
+            if (size > 0) {
+                result.add(project, Arrays.copyOf(projectIds, size), rules != null ? Arrays.copyOf(projectRules, size) : null);
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * @return number of dependencies added to all projects per rule, that caused them (see
+     *         {@link DuplicationPropagator.Contribution#Contribution(List, boolean, String)}), empty if no rules were recorded
+     */
+    public Map<String, Integer> getAddedPerRule() {
+        final Map<String, Integer> result = new HashMap<>();
+        for (final String[] rules : dependencyRules.values()) {
+            for (final String rule : rules) {
+                if (rule != null) {
+                    result.merge(rule, 1, Integer::sum);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return number of dependencies added to all projects
+     */
+    public int getTotalDependencyCount() {
+        int result = 0;
+        for (final int[] ids : dependencyIds.values()) {
+            result += ids.length;
+        }
+        return result;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collects the plan. Not thread safe.
+     */
+    public static class Builder {
+        private final List<PlannedDependency> dependencies = new ArrayList<>();
+        private final Map<DependencyKey, Integer> ids = new HashMap<>();
+        private final List<MavenProject> projects = new ArrayList<>();
+        private final Map<MavenProject, int[]> dependencyIds = new IdentityHashMap<>();
+        private final Map<MavenProject, String[]> dependencyRules = new IdentityHashMap<>();
+
+        /**
+         * @return id of the given dependency, the first planned dependency with equal key is kept
+         */
+        public int intern(final PlannedDependency dependency) {
+            final Integer existing = ids.get(dependency.getKey());
+            if (existing != null) {
+                return existing;
+            }
+            final int id = dependencies.size();
+            dependencies.add(dependency);
+            ids.put(dependency.getKey(), id);
+            return id;
+        }
+
+        /**
+         * @param project receiving project, has to be added only once
+         * @param projectDependencyIds ids returned by {@link #intern(PlannedDependency)}, in order and without duplicates
+         */
+        public Builder add(final MavenProject project, final int[] projectDependencyIds) {
+            return add(project, projectDependencyIds, null);
+        }
+
+        /**
+         * @param project receiving project, has to be added only once
+         * @param projectDependencyIds ids returned by {@link #intern(PlannedDependency)}, in order and without duplicates
+         * @param rules rule that caused each dependency, {@code null} elements for unknown rules, {@code null} if not recorded
+         */
+        public Builder add(final MavenProject project, final int[] projectDependencyIds, final String[] rules) {
+            if (dependencyIds.put(project, projectDependencyIds) != null) {
+                throw new IllegalArgumentException("project added twice: " + project.getId());
+            }
+            if (rules != null) {
+                dependencyRules.put(project, rules);
+            }
+            projects.add(project);
+            return this;
+        }
+
+        /**
+         * Adds the given dependencies, omitting duplicates.
+         */
+        public Builder add(final MavenProject project, final Collection<Dependency> projectDependencies) {
+            final int[] result = new int[projectDependencies.size()];
+            final BitSet seen = new BitSet();
+            int size = 0;
+            for (final Dependency dependency : projectDependencies) {
+                final int id = intern(PlannedDependency.of(dependency));
+                if (!seen.get(id)) {
+                    seen.set(id);
+                    result[size++] = id;
+                }
+            }
+            return add(project, Arrays.copyOf(result, size));
+        }
+
+        public DuplicationPlan build() {
+            return new DuplicationPlan(this);
+        }
+    }
+}
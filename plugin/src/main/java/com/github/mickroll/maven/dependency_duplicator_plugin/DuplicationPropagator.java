@@ -0,0 +1,296 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionEvents.Event;
+
+/**
+ * Distributes new dependencies to the projects they were found in and, if requested, to all of their downstream projects.
+ * <p>
+ * Instead of querying the downstream projects for every found dependency, the reactor is swept once in the build order of
+ * {@link ProjectDependencyGraph#getSortedProjects()}: each project inherits the set of upstream projects with downstream
+ * contributions from its direct upstream projects, which are determined once up front. The resulting dependencies (and their
+ * order) are the same as adding each contribution to the source project and every project returned by
+ * {@link ProjectDependencyGraph#getDownstreamProjects(MavenProject, boolean) getDownstreamProjects(source, true)}, processing
+ * the sources in the order of the projects passed to the constructor. That order does not have to be a build order.
+ * <p>
+ * Dependencies are interned on {@link #add(MavenProject, Contribution)}, the sweep only handles their ids (see
+ * {@link DuplicationPlan}).
+ *
+ * @author mickroll
+ */
+public class DuplicationPropagator {
+
+    private final List<MavenProject> projects;
+    private final Map<MavenProject, Integer> projectIndex = new IdentityHashMap<>();
+    private final List<List<InternedContribution>> contributions;
+    private final BitSet downstreamSources = new BitSet();
+    private final DuplicationPlan.Builder plan = DuplicationPlan.builder();
+
+    /**
+     * @param projects all projects of the reactor, in the order contributions are applied
+     */
+    public DuplicationPropagator(final List<MavenProject> projects) {
+        this.projects = projects;
+        this.contributions = new ArrayList<>(Collections.nCopies(projects.size(), null));
+        for (int i = 0; i < projects.size(); i++) {
+            projectIndex.put(projects.get(i), i);
+        }
+    }
+
+    /**
+     * Registers new dependencies for the given project.
+     *
+     * @param source project the dependencies were found in
+     * @param newDependencies dependencies to add
+     * @param addDownstream {@code true}, if the dependencies should also be added to downstream projects of {@code source}
+     */
+    public void add(final MavenProject source, final List<Dependency> newDependencies, final boolean addDownstream) {
+        final List<PlannedDependency> planned = new ArrayList<>(newDependencies.size());
+        newDependencies.forEach(dependency -> planned.add(PlannedDependency.of(dependency)));
+        add(source, new Contribution(planned, addDownstream, null));
+    }
+
+    /**
+     * Registers new dependencies for the given project.
+     *
+     * @param source project the dependencies were found in
+     * @param contribution dependencies to add
+     */
+    public void add(final MavenProject source, final Contribution contribution) {
+        final int index = indexOf(source);
+        List<InternedContribution> sourceContributions = contributions.get(index);
+        if (sourceContributions == null) {
+            sourceContributions = new ArrayList<>();
+            contributions.set(index, sourceContributions);
+        }
+        final int[] ids = new int[contribution.dependencies.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = plan.intern(contribution.dependencies.get(i));
+        }
+        sourceContributions.add(new InternedContribution(ids, contribution.addDownstream, contribution.rule));
+        if (contribution.addDownstream) {
+            downstreamSources.set(index);
+        }
+    }
+
+    /**
+     * Determines the given projects and all of their (transitive) upstream projects, the only projects whose duplications can end
+     * up in the given projects.
+     *
+     * @param reactorGraph unfiltered dependency graph of the reactor
+     * @param allProjects all projects of the reactor, defines the order of the result
+     * @param selectedProjects projects to find the upstream projects of
+     * @return selected and upstream projects, in the order of {@code allProjects}
+     */
+    public static List<MavenProject> withUpstreamProjects(final ProjectDependencyGraph reactorGraph, final List<MavenProject> allProjects,
+            final Collection<MavenProject> selectedProjects) {
+        final Set<MavenProject> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<MavenProject> pending = new ArrayDeque<>();
+        for (final MavenProject project : selectedProjects) {
+            if (found.add(project)) {
+                pending.add(project);
+            }
+        }
+        final Map<MavenProject, List<MavenProject>> upstreamProjects = DependencyGraphBuilder.getDirectUpstreamProjects(reactorGraph);
+        while (!pending.isEmpty()) {
+            for (final MavenProject upstream : upstreamProjects.getOrDefault(pending.poll(), Collections.emptyList())) {
+                if (found.add(upstream)) {
+                    pending.add(upstream);
+                }
+            }
+        }
+        final List<MavenProject> result = new ArrayList<>(found.size());
+        for (final MavenProject project : allProjects) {
+            if (found.contains(project)) {
+                result.add(project);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the new dependencies of each project.
+     *
+     * @param reactorGraph unfiltered dependency graph of the reactor, used for upstream relations
+     * @param targetProjects projects that may receive dependencies from upstream projects
+     * @return new dependencies per project, projects without new dependencies are omitted
+     */
+    public DuplicationPlan propagate(final ProjectDependencyGraph reactorGraph, final Collection<MavenProject> targetProjects) {
+        return propagate(reactorGraph, targetProjects, false);
+    }
+
+    /**
+     * Computes the new dependencies of each project.
+     *
+     * @param reactorGraph unfiltered dependency graph of the reactor, used for upstream relations
+     * @param targetProjects projects that may receive dependencies from upstream projects
+     * @param targetsOnly {@code true}, if projects that are no target do not receive their own dependencies either
+     * @return new dependencies per project, projects without new dependencies are omitted
+     */
+    public DuplicationPlan propagate(final ProjectDependencyGraph reactorGraph, final Collection<MavenProject> targetProjects,
+            final boolean targetsOnly) {
+        return propagate(reactorGraph, targetProjects, targetsOnly, ExtensionEvents.DISABLED);
+    }
+
+    /**
+     * Computes the new dependencies of each project.
+     *
+     * @param reactorGraph unfiltered dependency graph of the reactor, used for upstream relations
+     * @param targetProjects projects that may receive dependencies from upstream projects
+     * @param targetsOnly {@code true}, if projects that are no target do not receive their own dependencies either
+     * @param events receives an event for each project receiving dependencies
+     * @return new dependencies per project, projects without new dependencies are omitted
+     */
+    public DuplicationPlan propagate(final ProjectDependencyGraph reactorGraph, final Collection<MavenProject> targetProjects,
+            final boolean targetsOnly, final ExtensionEvents events) {
+        final Set<MavenProject> targets = Collections.newSetFromMap(new IdentityHashMap<>());
+        targets.addAll(targetProjects);
+        final BitSet[] inheritedSources = new BitSet[projects.size()];
+        final int[] buildPosition = new int[projects.size()];
+        final Map<MavenProject, List<MavenProject>> upstreamProjects = downstreamSources.isEmpty()
+                ? Collections.emptyMap()
+                : DependencyGraphBuilder.getDirectUpstreamProjects(reactorGraph);
+        int position = 0;
+        for (final MavenProject project : reactorGraph.getSortedProjects()) {
+            final Integer index = projectIndex.get(project);
+            if (index == null) {
+                continue;
+            }
+            buildPosition[index] = position++;
+            if (downstreamSources.isEmpty()) {
+                continue;
+            }
+            // upstream projects precede the project in build order, their sources are already known
+            final BitSet sources = new BitSet();
+            for (final MavenProject upstream : upstreamProjects.getOrDefault(project, Collections.emptyList())) {
+                final Integer upstreamIndex = projectIndex.get(upstream);
+                if (upstreamIndex == null || inheritedSources[upstreamIndex] == null) {
+                    continue;
+                }
+                sources.or(inheritedSources[upstreamIndex]);
+                if (downstreamSources.get(upstreamIndex)) {
+                    sources.set(upstreamIndex);
+                }
+            }
+            inheritedSources[index] = sources;
+        }
+
+        final List<Integer> receivingProjects = new ArrayList<>();
+        final int[] firstSource = new int[projects.size()];
+        for (int i = 0; i < projects.size(); i++) {
+            if (targetsOnly && !targets.contains(projects.get(i))) {
+                continue;
+            }
+            final int firstInherited = inheritedSources[i] != null && targets.contains(projects.get(i)) ? inheritedSources[i].nextSetBit(0) : -1;
+            if (contributions.get(i) != null) {
+                firstSource[i] = firstInherited >= 0 ? Math.min(firstInherited, i) : i;
+            } else if (firstInherited >= 0) {
+                firstSource[i] = firstInherited;
+            } else {
+                continue;
+            }
+            receivingProjects.add(i);
+        }
+        // keeps the order in which projects would have been touched when processing the sources in order, each source touching
+        // itself first and then its downstream projects in build order
+        receivingProjects.sort(Comparator.<Integer> comparingInt(i -> firstSource[i]).thenComparingInt(i -> buildPosition[i]));
+
+        final BitSet seen = new BitSet();
+        int[] buffer = new int[16];
+        String[] ruleBuffer = new String[16];
+        boolean hasRules = false;
+        for (final int target : receivingProjects) {
+            final Event event = events.propagation(projects.get(target));
+            final BitSet sources = inheritedSources[target] != null && targets.contains(projects.get(target))
+                    ? (BitSet) inheritedSources[target].clone()
+                    : new BitSet();
+            if (contributions.get(target) != null) {
+                sources.set(target);
+            }
+            int size = 0;
+            for (int source = sources.nextSetBit(0); source >= 0; source = sources.nextSetBit(source + 1)) {
+                for (final InternedContribution contribution : contributions.get(source)) {
+                    if (source != target && !contribution.addDownstream) {
+                        continue;
+                    }
+                    hasRules |= contribution.rule != null;
+                    for (final int id : contribution.ids) {
+                        if (!seen.get(id)) {
+                            seen.set(id);
+                            if (size == buffer.length) {
+                                buffer = Arrays.copyOf(buffer, size * 2);
+                                ruleBuffer = Arrays.copyOf(ruleBuffer, size * 2);
+                            }
+                            ruleBuffer[size] = contribution.rule;
+                            buffer[size++] = id;
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                seen.clear(buffer[i]);
+            }
+            plan.add(projects.get(target), Arrays.copyOf(buffer, size), hasRules ? Arrays.copyOf(ruleBuffer, size) : null);
+            event.setProjectCount(sources.cardinality());
+            event.setDependencyCount(size);
+            event.close();
+        }
+        return plan.build();
+    }
+
+    private int indexOf(final MavenProject project) {
+        final Integer index = projectIndex.get(project);
+        if (index == null) {
+            throw new IllegalArgumentException("project is not part of the reactor: " + project.getId());
+        }
+        return index;
+    }
+
+    /**
+     * New dependencies found in a project.
+     */
+    public static class Contribution {
+        final List<PlannedDependency> dependencies;
+        final boolean addDownstream;
+        final String rule;
+
+        /**
+         * @param dependencies dependencies to add
+         * @param addDownstream {@code true}, if the dependencies should also be added to downstream projects
+         * @param rule description of the rule that caused the contribution, used for statistics, may be {@code null}
+         */
+        public Contribution(final List<PlannedDependency> dependencies, final boolean addDownstream, final String rule) {
+            this.dependencies = dependencies;
+            this.addDownstream = addDownstream;
+            this.rule = rule;
+        }
+    }
+
+    private static class InternedContribution {
+        final int[] ids;
+        final boolean addDownstream;
+        final String rule;
+
+        InternedContribution(final int[] ids, final boolean addDownstream, final String rule) {
+            this.ids = ids;
+            this.addDownstream = addDownstream;
+            this.rule = rule;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Aggregated outcome of a run, logged instead of one line per project on large reactors.
+ *
+ * @author mickroll
+ */
+public class DuplicationSummary {
+
+    /**
+     * Log a summary instead of one line per project. Defaults to {@code true}, if the reactor has more projects than
+     * {@link #THRESHOLD}.
+     */
+    public static final String ENABLED = ExtensionSettings.PREFIX + "summary";
+
+    /**
+     * Minimum number of projects in the reactor to log a summary by default.
+     */
+    public static final String THRESHOLD = ExtensionSettings.PREFIX + "summary.threshold";
+
+    /**
+     * Number of projects with the most new dependencies listed in the summary.
+     */
+    public static final String TOP = ExtensionSettings.PREFIX + "summary.top";
+
+    private static final int DEFAULT_THRESHOLD = 50;
+    private static final int DEFAULT_TOP = 10;
+
+    private final boolean enabled;
+    private final int top;
+    private final AtomicInteger projectsWithoutConfig = new AtomicInteger();
+    private final Map<String, Integer> addedPerRule = new LinkedHashMap<>();
+    private final Map<MavenProject, Integer> addedPerProject = new LinkedHashMap<>();
+    private final int projects;
+    private final boolean trackRules;
+    private boolean cachedPlan;
+
+    DuplicationSummary(final boolean enabled, final int top, final int projects, final boolean trackRules) {
+        this.enabled = enabled;
+        this.top = top;
+        this.projects = projects;
+        this.trackRules = trackRules;
+    }
+
+    /**
+     * @param settings settings of the current session
+     * @param projects number of planned projects
+     * @param producerIndex index, if duplications are checked against the artifacts the projects build
+     * @return summary of the current session
+     */
+    public static DuplicationSummary of(final ExtensionSettings settings, final int projects, final Optional<ProducerIndex> producerIndex) {
+        final boolean enabled = settings.getBoolean(ENABLED, projects > settings.getInt(THRESHOLD, DEFAULT_THRESHOLD));
+        return new DuplicationSummary(enabled, Math.max(0, settings.getInt(TOP, DEFAULT_TOP)), projects,
+                enabled || producerIndex.isPresent());
+    }
+
+    /**
+     * @return {@code true}, if per project details should not be logged at info level
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return {@code true}, if contributions have to name their rule, for the summary or for the report of the {@link ProducerIndex}
+     */
+    public boolean isTrackRules() {
+        return trackRules;
+    }
+
+    /**
+     * May be called concurrently.
+     */
+    public void projectWithoutConfig() {
+        projectsWithoutConfig.incrementAndGet();
+    }
+
+    public void cachedPlan() {
+        cachedPlan = true;
+    }
+
+    public boolean isCachedPlan() {
+        return cachedPlan;
+    }
+
+    public void addedPerRule(final Map<String, Integer> added) {
+        added.forEach((rule, count) -> addedPerRule.merge(rule, count, Integer::sum));
+    }
+
+    public void added(final MavenProject project, final int count) {
+        addedPerProject.merge(project, count, Integer::sum);
+    }
+
+    /**
+     * @return summary, one line per entry
+     */
+    public List<String> format() {
+        final List<String> lines = new ArrayList<>();
+        final int added = addedPerProject.values().stream().mapToInt(Integer::intValue).sum();
+        lines.add(String.format(Locale.ROOT, "%d of %d projects touched, %d dependencies added, %d projects without plugin config%s",
+                addedPerProject.size(), projects, added, projectsWithoutConfig.get(), cachedPlan ? " (cached plan)" : ""));
+        if (!addedPerRule.isEmpty()) {
+            lines.add("dependencies added per rule:");
+            addedPerRule.entrySet().stream()
+                    .sorted(Entry.<String, Integer> comparingByValue().reversed())
+                    .forEach(entry -> lines.add(String.format(Locale.ROOT, "%10d  %s", entry.getValue(), entry.getKey())));
+        }
+        if (top > 0 && !addedPerProject.isEmpty()) {
+            lines.add(String.format(Locale.ROOT, "top %d projects by added dependencies:", Math.min(top, addedPerProject.size())));
+            addedPerProject.entrySet().stream()
+                    .sorted(Comparator.comparing(Entry<MavenProject, Integer>::getValue).reversed())
+                    .limit(top)
+                    .forEach(entry -> lines.add(String.format(Locale.ROOT, "%10d  %s", entry.getValue(), entry.getKey().getName())));
+        }
+        return lines;
+    }
+}
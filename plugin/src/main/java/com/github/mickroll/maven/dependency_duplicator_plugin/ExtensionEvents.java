@@ -0,0 +1,127 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JDK Flight Recorder events for the work of the extension, so it shows up in recordings of the Maven JVM.
+ * <p>
+ * This class itself does not emit any events. If enabled, {@link FlightRecorderEvents} is used, which is only implemented in the
+ * Java 11 variant of the multi-release jar ({@code META-INF/versions/11}), so the extension still runs on Java 8.
+ *
+ * @author mickroll
+ */
+public class ExtensionEvents {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExtensionEvents.class);
+
+    /**
+     * Emits JDK Flight Recorder events. They are only recorded, if a recording is running.
+     */
+    public static final String ENABLED = ExtensionSettings.PREFIX + "jfr";
+
+    static final ExtensionEvents DISABLED = new ExtensionEvents();
+
+    protected ExtensionEvents() {
+    }
+
+    /**
+     * @param settings settings of the current session
+     * @return events, that do nothing if not enabled or not supported by the running JVM
+     */
+    public static ExtensionEvents of(final ExtensionSettings settings) {
+        if (!settings.getBoolean(ENABLED, false)) {
+            return DISABLED;
+        }
+        final ExtensionEvents result = FlightRecorderEvents.create();
+        if (result == null) {
+            LOG.warn("{} requires Java 11 or newer, no events are emitted", ENABLED);
+            return DISABLED;
+        }
+        return result;
+    }
+
+    /**
+     * Starts the event for looking up the configuration of a project. Set the number of rules, if a configuration was found.
+     *
+     * @param project project
+     * @return running event, committed by {@link Event#close()}
+     */
+    public Event configResolution(final MavenProject project) {
+        return Event.NONE;
+    }
+
+    /**
+     * Starts the event for matching the dependencies of a project. Set the number of rules, of examined dependencies and of
+     * matches.
+     *
+     * @param project project
+     * @return running event, committed by {@link Event#close()}
+     */
+    public Event matching(final MavenProject project) {
+        return Event.NONE;
+    }
+
+    /**
+     * Starts the event for propagating the found dependencies downstream. Set the number of receiving projects and of added
+     * dependencies.
+     *
+     * @return running event, committed by {@link Event#close()}
+     */
+    public Event propagation() {
+        return Event.NONE;
+    }
+
+    /**
+     * Starts the event for collecting the dependencies a project receives during propagation. Set the number of source projects
+     * and of received dependencies.
+     *
+     * @param project receiving project
+     * @return running event, committed by {@link Event#close()}
+     */
+    public Event propagation(final MavenProject project) {
+        return Event.NONE;
+    }
+
+    /**
+     * Starts the event for checking the new edges of the project dependency graph. Set the number of new edges ({@code -1}, if
+     * they were not checked).
+     *
+     * @return running event, committed by {@link Event#close()}
+     */
+    public Event graphUpdate() {
+        return Event.NONE;
+    }
+
+    /**
+     * A running event. Values that do not apply to the type of event are ignored.
+     */
+    public interface Event extends AutoCloseable {
+
+        Event NONE = new Event() {
+        };
+
+        default void setRuleCount(final int ruleCount) {
+        }
+
+        default void setDependencyCount(final int dependencyCount) {
+        }
+
+        default void setMatchCount(final int matchCount) {
+        }
+
+        default void setProjectCount(final int projectCount) {
+        }
+
+        default void setEdgeCount(final int edgeCount) {
+        }
+
+        /**
+         * Ends and commits the event.
+         */
+        @Override
+        default void close() {
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.maven.execution.MavenSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Wall-clock time, CPU time and allocations per phase, plus counters, of one run of the extension.
+ * <p>
+ * Phases may be entered concurrently and repeatedly (e.g. once per project), their measurements are summed up.
+ *
+ * @author mickroll
+ */
+public class ExtensionMetrics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExtensionMetrics.class);
+
+    /**
+     * Writes the metrics report after the extension finished.
+     */
+    public static final String ENABLED = ExtensionSettings.PREFIX + "metrics";
+
+    /**
+     * Location of the metrics report, defaults to {@code target/dependency-duplicator-metrics.json} of the top level project.
+     */
+    public static final String FILE = ExtensionSettings.PREFIX + "metrics.file";
+
+    public static final String FILE_NAME = "dependency-duplicator-metrics.json";
+
+    public enum Phase {
+        PLAN_CACHE("planCache"),
+        CONFIG_RESOLUTION("configResolution"),
+        TRANSITIVE_COLLECTION("transitiveCollection"),
+        MATCHING("matching"),
+        PROPAGATION("propagation"),
+        PREFETCH("prefetch"),
+        APPLY("apply"),
+        GRAPH_UPDATE("graphUpdate");
+
+        private final String jsonName;
+
+        Phase(final String jsonName) {
+            this.jsonName = jsonName;
+        }
+    }
+
+    public enum Counter {
+        PROJECTS_VISITED("projectsVisited"),
+        RESIDENT_CACHE_HITS("residentCacheHits"),
+        DEPENDENCIES_EXAMINED("dependenciesExamined"),
+        ARTIFACT_DESCRIPTORS_READ("artifactDescriptorsRead"),
+        MATCHES("matches"),
+        DEPENDENCIES_NOT_PRODUCED("dependenciesNotProduced"),
+        DEPENDENCIES_OUT_OF_SCOPE("dependenciesOutOfScope"),
+        ARTIFACTS_PREFETCHED("artifactsPrefetched"),
+        ARTIFACTS_MISSING("artifactsMissing"),
+        DEPENDENCIES_ADDED("dependenciesAdded"),
+        GRAPH_EDGES_ADDED("graphEdgesAdded"),
+        GRAPH_UNCHANGED("graphUnchanged"),
+        GRAPH_CHECKED("graphChecked"),
+        GRAPH_CHECKS_SKIPPED("graphChecksSkipped");
+
+        private final String jsonName;
+
+        Counter(final String jsonName) {
+            this.jsonName = jsonName;
+        }
+    }
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final long startNanos = System.nanoTime();
+    private final ExtensionEvents events;
+    private final Map<Phase, PhaseMeasurement> phases = new EnumMap<>(Phase.class);
+    private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+    private volatile long totalNanos = -1;
+    private volatile ReactorShape shapeBefore;
+    private volatile ReactorShape shapeAfter;
+
+    /**
+     * @return location of the metrics report, if enabled
+     */
+    public static Optional<Path> reportFile(final MavenSession session, final ExtensionSettings settings) {
+        if (!settings.getBoolean(ENABLED, false)) {
+            return Optional.empty();
+        }
+        final String configuredFile = settings.get(FILE);
+        if (configuredFile != null && !configuredFile.trim().isEmpty()) {
+            return Optional.of(Paths.get(configuredFile.trim()));
+        }
+        final Optional<Path> buildDirectory = ExtensionSettings.getTopLevelBuildDirectory(session);
+        if (!buildDirectory.isPresent()) {
+            LOG.warn("unable to determine location of metrics report, set {}", FILE);
+        }
+        return buildDirectory.map(directory -> directory.resolve(FILE_NAME));
+    }
+
+    public ExtensionMetrics() {
+        this(ExtensionEvents.DISABLED);
+    }
+
+    /**
+     * @param events Flight Recorder events to emit during this run
+     */
+    public ExtensionMetrics(final ExtensionEvents events) {
+        this.events = events;
+        for (final Phase phase : Phase.values()) {
+            phases.put(phase, new PhaseMeasurement());
+        }
+        for (final Counter counter : Counter.values()) {
+            counters.put(counter, new LongAdder());
+        }
+    }
+
+    /**
+     * Starts measuring a phase in the current thread, stopped by {@link Timer#close()}.
+     *
+     * @param phase phase
+     * @return running timer
+     */
+    public Timer start(final Phase phase) {
+        return new Timer(phases.get(phase));
+    }
+
+    public ExtensionEvents events() {
+        return events;
+    }
+
+    public void add(final Counter counter, final long value) {
+        counters.get(counter).add(value);
+    }
+
+    public void increment(final Counter counter) {
+        counters.get(counter).increment();
+    }
+
+    public long get(final Counter counter) {
+        return counters.get(counter).sum();
+    }
+
+    public long getWallNanos(final Phase phase) {
+        return phases.get(phase).wallNanos.sum();
+    }
+
+    /**
+     * Records the shape of the graph of the projects being built, before and after dependencies were added.
+     *
+     * @param before shape before
+     * @param after shape after
+     */
+    public void setReactorShape(final ReactorShape before, final ReactorShape after) {
+        this.shapeBefore = before;
+        this.shapeAfter = after;
+    }
+
+    /**
+     * Marks the end of the run.
+     *
+     * @return total wall-clock time in milliseconds
+     */
+    public long finish() {
+        totalNanos = System.nanoTime() - startNanos;
+        return totalNanos / 1_000_000;
+    }
+
+    public String toJson() {
+        final StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"totalMillis\": ").append(millis(totalNanos >= 0 ? totalNanos : System.nanoTime() - startNanos)).append(",\n");
+        json.append("  \"phases\": {\n");
+        boolean first = true;
+        for (final Phase phase : Phase.values()) {
+            final PhaseMeasurement measurement = phases.get(phase);
+            json.append(first ? "" : ",\n");
+            json.append("    \"").append(phase.jsonName).append("\": { ")
+                    .append("\"invocations\": ").append(measurement.invocations.sum())
+                    .append(", \"wallMillis\": ").append(millis(measurement.wallNanos.sum()))
+                    .append(", \"cpuMillis\": ").append(millis(measurement.cpuNanos.sum()))
+                    .append(", \"allocatedBytes\": ").append(measurement.allocatedBytes.sum())
+                    .append(" }");
+            first = false;
+        }
+        json.append("\n  },\n");
+        json.append("  \"counters\": {\n");
+        first = true;
+        for (final Counter counter : Counter.values()) {
+            json.append(first ? "" : ",\n");
+            json.append("    \"").append(counter.jsonName).append("\": ").append(counters.get(counter).sum());
+            first = false;
+        }
+        json.append("\n  }");
+        if (shapeBefore != null && shapeAfter != null) {
+            json.append(",\n  \"reactor\": {\n");
+            json.append("    \"longestPathBefore\": ").append(shapeBefore.getLongestPath()).append(",\n");
+            json.append("    \"longestPathAfter\": ").append(shapeAfter.getLongestPath()).append(",\n");
+            json.append("    \"maxWidthBefore\": ").append(shapeBefore.getMaxWidth()).append(",\n");
+            json.append("    \"maxWidthAfter\": ").append(shapeAfter.getMaxWidth()).append("\n");
+            json.append("  }");
+        }
+        json.append("\n}\n");
+        return json.toString();
+    }
+
+    public void write(final Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(file, toJson().getBytes(StandardCharsets.UTF_8));
+            LOG.debug("wrote metrics to {}", file);
+        } catch (final IOException e) {
+            LOG.warn("unable to write metrics to {}: {}", file, e.toString());
+        }
+    }
+
+    private static String millis(final long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000d);
+    }
+
+    private static long currentThreadCpuNanos() {
+        return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean mxBean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+            if (mxBean.isThreadAllocatedMemorySupported() && mxBean.isThreadAllocatedMemoryEnabled()) {
+                return mxBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return 0;
+    }
+
+    private static class PhaseMeasurement {
+        final LongAdder invocations = new LongAdder();
+        final LongAdder wallNanos = new LongAdder();
+        final LongAdder cpuNanos = new LongAdder();
+        final LongAdder allocatedBytes = new LongAdder();
+    }
+
+    /**
+     * Running measurement of a phase in the current thread.
+     */
+    public static final class Timer implements AutoCloseable {
+        private final PhaseMeasurement measurement;
+        private final long wallStart;
+        private final long cpuStart;
+        private final long allocatedStart;
+
+        Timer(final PhaseMeasurement measurement) {
+            this.measurement = measurement;
+            this.allocatedStart = currentThreadAllocatedBytes();
+            this.cpuStart = currentThreadCpuNanos();
+            this.wallStart = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            measurement.wallNanos.add(System.nanoTime() - wallStart);
+            measurement.cpuNanos.add(currentThreadCpuNanos() - cpuStart);
+            measurement.allocatedBytes.add(currentThreadAllocatedBytes() - allocatedStart);
+            measurement.invocations.increment();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Properties;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Settings of the build extension itself, that apply to the whole session.
+ * <p>
+ * Read from user properties (e.g. {@code -DdependencyDuplicator.parallel=true}) or system properties, user properties win.
+ *
+ * @author mickroll
+ */
+public class ExtensionSettings {
+
+    public static final String PREFIX = "dependencyDuplicator.";
+
+    /**
+     * Turns the extension off.
+     */
+    public static final String SKIP = PREFIX + "skip";
+
+    /**
+     * Plan duplications for all projects concurrently.
+     */
+    public static final String PARALLEL = PREFIX + "parallel";
+
+    /**
+     * Number of threads used for parallel planning, defaults to the degree of concurrency of the build ({@code -T}), if
+     * given, or the number of available processors.
+     */
+    public static final String THREADS = PREFIX + "threads";
+
+    /**
+     * Only plan duplications for the projects selected for the build (e.g. using {@code -pl}, {@code -am} or {@code -rf}) and
+     * the upstream projects whose duplications propagate into them.
+     */
+    public static final String SELECTED_PROJECTS_ONLY = PREFIX + "selectedProjectsOnly";
+
+    private final Properties userProperties;
+    private final Properties systemProperties;
+    private final int degreeOfConcurrency;
+
+    ExtensionSettings(final Properties userProperties, final Properties systemProperties, final int degreeOfConcurrency) {
+        this.userProperties = userProperties;
+        this.systemProperties = systemProperties;
+        this.degreeOfConcurrency = degreeOfConcurrency;
+    }
+
+    public static ExtensionSettings of(final MavenSession session) {
+        return new ExtensionSettings(session.getUserProperties(), session.getSystemProperties(),
+                session.getRequest() != null ? session.getRequest().getDegreeOfConcurrency() : 1);
+    }
+
+    public boolean isSkip() {
+        return getBoolean(SKIP, false);
+    }
+
+    public boolean isParallel() {
+        return getBoolean(PARALLEL, false);
+    }
+
+    public boolean isSelectedProjectsOnly() {
+        return getBoolean(SELECTED_PROJECTS_ONLY, false);
+    }
+
+    public int getThreads() {
+        final int defaultThreads = degreeOfConcurrency > 1 ? degreeOfConcurrency : Runtime.getRuntime().availableProcessors();
+        return Math.max(1, getInt(THREADS, defaultThreads));
+    }
+
+    /**
+     * @return build directory of the top level project, if known
+     */
+    static Optional<Path> getTopLevelBuildDirectory(final MavenSession session) {
+        final MavenProject topLevelProject = session.getTopLevelProject() != null ? session.getTopLevelProject() : session.getCurrentProject();
+        if (topLevelProject == null || topLevelProject.getBuild() == null || topLevelProject.getBuild().getDirectory() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(Paths.get(topLevelProject.getBuild().getDirectory()));
+    }
+
+    String get(final String key) {
+        final String value = userProperties != null ? userProperties.getProperty(key) : null;
+        if (value != null) {
+            return value;
+        }
+        return systemProperties != null ? systemProperties.getProperty(key) : null;
+    }
+
+    boolean getBoolean(final String key, final boolean defaultValue) {
+        final String value = get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        // -Dkey without value results in an empty string
+        return value.trim().isEmpty() || Boolean.parseBoolean(value.trim());
+    }
+
+    int getInt(final String key, final int defaultValue) {
+        final String value = get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("invalid value for " + key + ": " + value, e);
+        }
+    }
+}
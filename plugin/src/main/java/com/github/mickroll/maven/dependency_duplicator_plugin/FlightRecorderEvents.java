@@ -0,0 +1,22 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+/**
+ * Emits {@link ExtensionEvents} using the JDK Flight Recorder.
+ * <p>
+ * The Flight Recorder API is not available on Java 8, this variant is replaced by the one in {@code src/main/java11} within the
+ * multi-release jar.
+ *
+ * @author mickroll
+ */
+final class FlightRecorderEvents {
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * @return events using the JDK Flight Recorder, {@code null} if not supported
+     */
+    static ExtensionEvents create() {
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread safe map with a maximum size, that evicts the least recently used entry.
+ *
+ * @author mickroll
+ */
+final class LruCache<K, V> {
+
+    private final Map<K, V> entries;
+    private volatile int maxSize;
+
+    LruCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                return size() > LruCache.this.maxSize;
+            }
+        };
+    }
+
+    synchronized V get(final K key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(final K key, final V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * @return the value already present, or {@code value}, if there was none
+     */
+    synchronized V putIfAbsent(final K key, final V value) {
+        final V present = entries.putIfAbsent(key, value);
+        return present != null ? present : value;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Changes the maximum size, evicting the least recently used entries if necessary.
+     */
+    synchronized void setMaxSize(final int maxSize) {
+        this.maxSize = maxSize;
+        while (entries.size() > maxSize) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+    }
+}
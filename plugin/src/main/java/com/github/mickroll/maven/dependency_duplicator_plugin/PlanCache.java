@@ -0,0 +1,305 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the computed new dependencies of all projects on disk, so unchanged reactors can skip planning in subsequent builds.
+ * <p>
+ * A stored plan is only used, if the fingerprint of all inputs is unchanged: this plugin itself, reactor membership and
+ * relations, each project's declared dependencies and its effective duplicator configuration. Since duplications are
+ * propagated downstream, a change in any project invalidates the whole plan.
+ * <p>
+ * The plan is stored as plain text, one line per project and per dependency, so reading a cache file never instantiates
+ * anything but dependencies.
+ *
+ * @author mickroll
+ */
+public class PlanCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PlanCache.class);
+
+    /**
+     * Enables the plan cache.
+     */
+    public static final String ENABLED = ExtensionSettings.PREFIX + "planCache";
+
+    /**
+     * Location of the cache file, defaults to {@code target/dependency-duplicator-plan.cache} of the top level project.
+     */
+    public static final String FILE = ExtensionSettings.PREFIX + "planCache.file";
+
+    private static final String FILE_NAME = "dependency-duplicator-plan.cache";
+    private static final int FORMAT_VERSION = 2;
+    private static final String HEADER = "dependency-duplicator-plan " + FORMAT_VERSION;
+    private static final String FINGERPRINT = "fingerprint ";
+    private static final String PROJECT = "project ";
+    private static final String DEPENDENCY = "dependency ";
+    private static final String SEPARATOR = "\t";
+    private static final int DEPENDENCY_FIELDS = 9;
+
+    private final Path file;
+
+    PlanCache(final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return cache for the given session, if enabled
+     */
+    public static Optional<PlanCache> of(final MavenSession session, final ExtensionSettings settings) {
+        if (!settings.getBoolean(ENABLED, false)) {
+            return Optional.empty();
+        }
+        final String configuredFile = settings.get(FILE);
+        if (configuredFile != null && !configuredFile.trim().isEmpty()) {
+            return Optional.of(new PlanCache(Paths.get(configuredFile.trim())));
+        }
+        final Optional<Path> buildDirectory = ExtensionSettings.getTopLevelBuildDirectory(session);
+        if (!buildDirectory.isPresent()) {
+            LOG.warn("unable to determine location of plan cache, set {}", FILE);
+            return Optional.empty();
+        }
+        return Optional.of(new PlanCache(buildDirectory.get().resolve(FILE_NAME)));
+    }
+
+    /**
+     * Computes the fingerprint of all inputs of the plan. Has to be called before any dependencies are added.
+     *
+     * @param projects all planned projects of the reactor
+     * @param reactorGraph unfiltered dependency graph of the reactor
+     * @param targetProjects projects that may receive dependencies from upstream projects
+     * @param targetsOnly {@code true}, if only target projects receive dependencies
+     * @param configurationLookup finds the raw plugin configuration of a project
+     * @param producerIndex artifacts built by the projects, if duplications are checked against them
+     * @return fingerprint
+     */
+    public String fingerprint(final List<MavenProject> projects, final ProjectDependencyGraph reactorGraph, final Set<MavenProject> targetProjects,
+            final boolean targetsOnly, final Function<MavenProject, Optional<Object>> configurationLookup,
+            final Optional<ProducerIndex> producerIndex) {
+        final MessageDigest digest = newDigest();
+        update(digest, "format " + FORMAT_VERSION);
+        update(digest, "plugin " + pluginLocation());
+        update(digest, "targetsOnly " + targetsOnly);
+        final Map<MavenProject, List<MavenProject>> upstreamProjects = DependencyGraphBuilder.getDirectUpstreamProjects(reactorGraph);
+        for (final MavenProject project : projects) {
+            update(digest, "project " + project.getId() + (targetProjects.contains(project) ? " target" : ""));
+            final List<String> upstreamIds = new ArrayList<>();
+            for (final MavenProject upstream : upstreamProjects.getOrDefault(project, Collections.emptyList())) {
+                upstreamIds.add(upstream.getId());
+            }
+            Collections.sort(upstreamIds);
+            for (final String upstreamId : upstreamIds) {
+                update(digest, "upstream " + upstreamId);
+            }
+            for (final Dependency dependency : project.getDependencies()) {
+                update(digest, "dependency " + DependencyKey.of(dependency));
+            }
+            update(digest, "config " + configurationLookup.apply(project).map(String::valueOf).orElse("-"));
+            if (producerIndex.isPresent()) {
+                update(digest, "produces " + producerIndex.get().describe(project));
+            }
+        }
+        final StringBuilder result = new StringBuilder();
+        for (final byte b : digest.digest()) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Loads the stored plan, if it was stored with the given fingerprint.
+     *
+     * @param fingerprint current fingerprint
+     * @param projects all planned projects of the reactor
+     * @return stored plan, if valid
+     */
+    public Optional<DuplicationPlan> load(final String fingerprint, final List<MavenProject> projects) {
+        if (!Files.isRegularFile(file)) {
+            LOG.debug("no plan cache found at {}", file);
+            return Optional.empty();
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine()) || !(FINGERPRINT + fingerprint).equals(reader.readLine())) {
+                LOG.debug("plan cache {} is outdated", file);
+                return Optional.empty();
+            }
+            final Map<String, MavenProject> projectsById = new HashMap<>();
+            projects.forEach(project -> projectsById.put(project.getId(), project));
+
+            final DuplicationPlan.Builder result = DuplicationPlan.builder();
+            MavenProject project = null;
+            List<Dependency> dependencies = null;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith(PROJECT)) {
+                    if (project != null) {
+                        result.add(project, dependencies);
+                    }
+                    project = projectsById.get(line.substring(PROJECT.length()));
+                    if (project == null) {
+                        LOG.debug("plan cache {} refers to unknown project", file);
+                        return Optional.empty();
+                    }
+                    dependencies = new ArrayList<>();
+                } else if (line.startsWith(DEPENDENCY) && project != null) {
+                    dependencies.add(parseDependency(line.substring(DEPENDENCY.length())));
+                } else {
+                    throw new IllegalArgumentException("unexpected line: " + line);
+                }
+            }
+            if (project != null) {
+                result.add(project, dependencies);
+            }
+            return Optional.of(result.build());
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.debug("unable to read plan cache {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the plan, replacing any previously stored plan.
+     *
+     * @param fingerprint fingerprint of the inputs of the plan
+     * @param plan new dependencies per project
+     */
+    public void store(final String fingerprint, final DuplicationPlan plan) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            final Path tempFile = Files.createTempFile(file.toAbsolutePath().getParent(), FILE_NAME, ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                writer.write(HEADER + '\n');
+                writer.write(FINGERPRINT + fingerprint + '\n');
+                for (final MavenProject project : plan.getProjects()) {
+                    writer.write(PROJECT + project.getId() + '\n');
+                    for (final Dependency dependency : plan.getDependencies(project)) {
+                        writer.write(DEPENDENCY + formatDependency(dependency) + '\n');
+                    }
+                }
+            } catch (final IOException | IllegalArgumentException e) {
+                Files.delete(tempFile);
+                throw e;
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            LOG.debug("stored plan cache {}", file);
+        } catch (final IOException | IllegalArgumentException e) {
+            LOG.warn("unable to write plan cache {}: {}", file, e.toString());
+        }
+    }
+
+    /**
+     * @return the fields of the dependency, that may be set on a duplicated or additional dependency, {@code null} as empty field
+     */
+    private static String formatDependency(final Dependency dependency) {
+        final List<String> exclusions = new ArrayList<>();
+        for (final Exclusion exclusion : dependency.getExclusions()) {
+            exclusions.add(exclusion.getGroupId() + ':' + exclusion.getArtifactId());
+        }
+        final String[] fields = { dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(), dependency.getType(),
+                dependency.getClassifier(), dependency.getScope(), dependency.getOptional(), dependency.getSystemPath(),
+                String.join(",", exclusions) };
+        final StringBuilder result = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            final String field = fields[i] != null ? fields[i] : "";
+            if (field.contains(SEPARATOR) || field.contains("\n") || field.contains("\r")) {
+                throw new IllegalArgumentException("unable to store dependency " + dependency.getManagementKey());
+            }
+            result.append(i > 0 ? SEPARATOR : "").append(field);
+        }
+        return result.toString();
+    }
+
+    private static Dependency parseDependency(final String line) {
+        final String[] fields = line.split(SEPARATOR, -1);
+        if (fields.length != DEPENDENCY_FIELDS) {
+            throw new IllegalArgumentException("unexpected dependency: " + line);
+        }
+        final Dependency result = new Dependency();
+        result.setGroupId(emptyToNull(fields[0]));
+        result.setArtifactId(emptyToNull(fields[1]));
+        result.setVersion(emptyToNull(fields[2]));
+        result.setType(emptyToNull(fields[3]));
+        result.setClassifier(emptyToNull(fields[4]));
+        result.setScope(emptyToNull(fields[5]));
+        result.setOptional(emptyToNull(fields[6]));
+        result.setSystemPath(emptyToNull(fields[7]));
+        if (!fields[8].isEmpty()) {
+            for (final String excluded : fields[8].split(",")) {
+                final String[] coordinates = excluded.split(":", -1);
+                if (coordinates.length != 2) {
+                    throw new IllegalArgumentException("unexpected exclusion: " + excluded);
+                }
+                final Exclusion exclusion = new Exclusion();
+                exclusion.setGroupId(coordinates[0]);
+                exclusion.setArtifactId(coordinates[1]);
+                result.addExclusion(exclusion);
+            }
+        }
+        return result;
+    }
+
+    private static String emptyToNull(final String field) {
+        return field.isEmpty() ? null : field;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Location and modification time of this plugin, so plans of other versions are not used.
+     */
+    private static String pluginLocation() {
+        final CodeSource codeSource = PlanCache.class.getProtectionDomain().getCodeSource();
+        final URL location = codeSource != null ? codeSource.getLocation() : null;
+        if (location == null) {
+            return "unknown";
+        }
+        try {
+            return location + " " + Files.getLastModifiedTime(Paths.get(location.toURI())).toMillis();
+        } catch (final IOException | URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            return location.toString();
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void update(final MessageDigest digest, final String line) {
+        digest.update(line.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+}
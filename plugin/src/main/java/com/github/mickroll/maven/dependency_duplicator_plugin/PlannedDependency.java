@@ -0,0 +1,47 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import org.apache.maven.model.Dependency;
+
+/**
+ * A dependency that will be added to projects, described by its {@link DependencyKey}. The {@link Dependency} itself is only
+ * created from the key, when the plan is applied, so planned dependencies do not refer to the models they were found in.
+ *
+ * @author mickroll
+ */
+public final class PlannedDependency {
+
+    private final DependencyKey key;
+
+    private PlannedDependency(final DependencyKey key) {
+        this.key = key;
+    }
+
+    /**
+     * @param key key of the dependency
+     * @return planned dependency
+     */
+    public static PlannedDependency of(final DependencyKey key) {
+        return new PlannedDependency(key);
+    }
+
+    /**
+     * @param dependency existing dependency, that will be added with the same values
+     * @return planned dependency
+     */
+    public static PlannedDependency of(final Dependency dependency) {
+        return new PlannedDependency(DependencyKey.of(dependency));
+    }
+
+    public DependencyKey getKey() {
+        return key;
+    }
+
+    Dependency materialize() {
+        return key.toDependency();
+    }
+
+    @Override
+    public String toString() {
+        return key.toString();
+    }
+}
@@ -5,16 +5,7 @@ import java.util.Optional;
 import javax.inject.Inject;
 
 import org.apache.maven.execution.MavenSession;
-import org.apache.maven.lifecycle.internal.MojoDescriptorCreator;
 import org.apache.maven.model.Plugin;
-import org.apache.maven.plugin.InvalidPluginDescriptorException;
-import org.apache.maven.plugin.MojoNotFoundException;
-import org.apache.maven.plugin.PluginDescriptorParsingException;
-import org.apache.maven.plugin.PluginNotFoundException;
-import org.apache.maven.plugin.PluginResolutionException;
-import org.apache.maven.plugin.descriptor.MojoDescriptor;
-import org.apache.maven.plugin.prefix.NoPluginFoundForPrefixException;
-import org.apache.maven.plugin.version.PluginVersionResolutionException;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.PlexusContainer;
 import org.codehaus.plexus.component.configurator.BasicComponentConfigurator;
@@ -26,7 +17,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.mickroll.maven.dependency_duplicator_plugin.config.PluginMojo;
+import com.github.mickroll.maven.dependency_duplicator_plugin.config.RuleStatistics;
 
+/**
+ * Reads the {@link PluginMojo} configuration that applies to a project.
+ * <p>
+ * Plugin configuration is inherited into the model of every child project, so almost all projects of a reactor carry an equal
+ * copy of the same configuration. Configured mojos are therefore cached by the content of their configuration (see
+ * {@link Xpp3Dom#equals(Object)}) and shared between all projects with equal configuration. The cache is bounded, so it may be
+ * kept between sessions (see {@link ResidentCache}).
+ *
+ * @author mickroll
+ */
 public class PluginConfigResolver {
 
     private static final Logger LOG = LoggerFactory.getLogger(PluginConfigResolver.class);
@@ -34,19 +36,51 @@ public class PluginConfigResolver {
     @Inject
     private PlexusContainer container;
 
-    @Inject
-    private MojoDescriptorCreator mojoDescriptorCreator;
+    static final int CONFIG_CACHE_SIZE = 64;
+
+    private final LruCache<Object, Optional<PluginMojo>> configCache = new LruCache<>(CONFIG_CACHE_SIZE);
+
+    private volatile boolean recordRuleStatistics;
+
+    /**
+     * Forgets all cached configurations, should be called at the beginning of each session, unless configurations are kept
+     * between sessions.
+     */
+    public void clearCache() {
+        configCache.clear();
+    }
+
+    /**
+     * Sets, if mojos configured from now on should record {@link RuleStatistics}. Statistics are recorded per session, so cached
+     * configurations are forgotten, if statistics are or were recorded.
+     *
+     * @param recordRuleStatistics {@code true}, if mojos configured from now on should record {@link RuleStatistics}
+     */
+    public void setRecordRuleStatistics(final boolean recordRuleStatistics) {
+        if (recordRuleStatistics || this.recordRuleStatistics) {
+            configCache.clear();
+        }
+        this.recordRuleStatistics = recordRuleStatistics;
+    }
 
     public Optional<PluginMojo> findPluginConfig(final MavenSession session, final MavenProject project) {
-        MavenProject projectCursor = project;
+        return findPluginConfiguration(project).flatMap(configuration -> {
+            final Optional<PluginMojo> cached = configCache.get(configuration);
+            return cached != null ? cached : configCache.putIfAbsent(configuration, configureMojo(configuration));
+        });
+    }
+
+    /**
+     * Finds the raw configuration of this plugin, that applies to the given project.
+     *
+     * @param project project
+     * @return configuration (usually a {@link Xpp3Dom}), if the plugin is configured in the project or one of its parents
+     */
+    public Optional<Object> findPluginConfiguration(final MavenProject project) {
         Plugin plugin = null;
-        while (projectCursor != null) {
-            plugin = projectCursor.getPlugin(PluginMojo.PLUGIN_KEY);
-            if (plugin != null) {
-                // break to keep correct projectCursor
-                break;
-            }
-            projectCursor = projectCursor.getParent();
+        // nearest definition wins
+        for (MavenProject current = project; current != null && plugin == null; current = current.getParent()) {
+            plugin = current.getPlugin(PluginMojo.PLUGIN_KEY);
         }
 
         if (plugin == null) {
@@ -57,21 +91,20 @@ public class PluginConfigResolver {
             LOG.debug("plugin configuration not found in project or parent projects");
             return Optional.empty();
         }
+        return Optional.of(plugin.getConfiguration());
+    }
 
+    private Optional<PluginMojo> configureMojo(final Object configuration) {
         try {
-            final MojoDescriptor descriptor = mojoDescriptorCreator.getMojoDescriptor(PluginMojo.PLUGIN_KEY + ":" + PluginMojo.GOAL, session, projectCursor);
-            LOG.debug("descriptor created " + descriptor);
-
-            descriptor.setConfiguration(getConfig(plugin.getConfiguration()));
-            final PlexusConfiguration config = getConfig(plugin.getConfiguration());
-
             final PluginMojo mojo = new PluginMojo();
-            new BasicComponentConfigurator().configureComponent(mojo, config, container.getContainerRealm());
-
+            new BasicComponentConfigurator().configureComponent(mojo, getConfig(configuration), container.getContainerRealm());
+            mojo.validate();
+            if (recordRuleStatistics) {
+                mojo.recordRuleStatistics();
+            }
+            LOG.debug("configured {}", mojo);
             return Optional.of(mojo);
-        } catch (PluginNotFoundException | PluginResolutionException | PluginDescriptorParsingException | MojoNotFoundException
-                | NoPluginFoundForPrefixException | InvalidPluginDescriptorException | PluginVersionResolutionException
-                | ComponentConfigurationException e) {
+        } catch (final ComponentConfigurationException e) {
             LOG.error("unable to read plugin configuration ", e);
             return Optional.empty();
         }
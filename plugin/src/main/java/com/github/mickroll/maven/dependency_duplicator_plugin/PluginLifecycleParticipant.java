@@ -2,26 +2,43 @@ package com.github.mickroll.maven.dependency_duplicator_plugin;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 import javax.inject.Inject;
 
 import org.apache.maven.AbstractMavenLifecycleParticipant;
 import org.apache.maven.MavenExecutionException;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.mickroll.maven.dependency_duplicator_plugin.DuplicationPropagator.Contribution;
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionEvents.Event;
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionMetrics.Counter;
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionMetrics.Phase;
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionMetrics.Timer;
 import com.github.mickroll.maven.dependency_duplicator_plugin.config.DependencyDuplication;
 import com.github.mickroll.maven.dependency_duplicator_plugin.config.PluginMojo;
+import com.github.mickroll.maven.dependency_duplicator_plugin.config.RuleStatistics;
 
 @Component(role = AbstractMavenLifecycleParticipant.class)
 public class PluginLifecycleParticipant extends AbstractMavenLifecycleParticipant {
@@ -34,91 +51,505 @@ public class PluginLifecycleParticipant extends AbstractMavenLifecycleParticipan
     @Inject
     private DependencyGraphBuilder dependencyGraphBuilder;
 
-    // TODO #3: use GraphBuilder, as soon as available (needs maven 3.7.0, see https://github.com/apache/maven/pull/368 )
-    // @Inject
-    // private GraphBuilder graphBuilder;
+    @Inject
+    private RepositorySystem repositorySystem;
+
+    private final ResidentCache residentCache = new ResidentCache();
 
     @Override
     public void afterProjectsRead(final MavenSession session) throws MavenExecutionException {
+        final ExtensionSettings settings = ExtensionSettings.of(session);
+        if (settings.isSkip()) {
+            LOG.info("not duplicating any dependencies, {} is set", ExtensionSettings.SKIP);
+            return;
+        }
+        final ReachableScopes reachableScopes = ReachableScopes.of(session.getGoals(), settings);
+        if (reachableScopes.isNone()) {
+            LOG.info("not duplicating any dependencies, {}", reachableScopes);
+            return;
+        }
         LOG.info("duplicating dependencies to projects in reactor");
 
-        final long startTime = System.currentTimeMillis();
+        final ExtensionMetrics metrics = new ExtensionMetrics(ExtensionEvents.of(settings));
 
-        if (session.getProjectDependencyGraph() == null) {
+        if (session.getProjectDependencyGraph() == null && !dependencyGraphBuilder.buildDependencyGraph(session)) {
             LOG.warn("Current MavenSession does not provide a ProjectDependencyGraph.");
-            // TODO #3: build graph using GraphBuilder
             return;
         }
 
-        final Map<MavenProject, DependencySet> newProjectDependencies = createDuplicateDependenciesForProjects(session);
+        final boolean resident = residentCache.configure(settings);
+        if (!resident) {
+            pluginConfigResolver.clearCache();
+        }
+        final boolean ruleStatistics = settings.getBoolean(RuleStatistics.ENABLED, false);
+        pluginConfigResolver.setRecordRuleStatistics(ruleStatistics);
+        // statistics are only recorded while matching
+        final boolean useResidentCache = resident && !ruleStatistics;
+        final List<MavenProject> projects = getProjectsToPlan(session, settings);
+        final Optional<Set<MavenProject>> affectedProjects = getAffectedProjects(session, settings);
+        final Set<MavenProject> targetProjects = getTargetProjects(session, affectedProjects);
+        final boolean targetsOnly = settings.isSelectedProjectsOnly() || affectedProjects.isPresent();
+        // computing the shape queries the upstream projects of every project, only done for the metrics report
+        final ReactorShape shapeBefore = settings.getBoolean(ExtensionMetrics.ENABLED, false)
+                ? ReactorShape.of(session.getProjectDependencyGraph())
+                : null;
+        final Optional<ProducerIndex> producerIndex = settings.getBoolean(ProducerIndex.ENABLED, false)
+                ? Optional.of(ProducerIndex.of(session))
+                : Optional.empty();
+        final DuplicationSummary summary = DuplicationSummary.of(settings, projects.size(), producerIndex);
+        final DuplicationPlan newProjectDependencies = retainReachableScopes(createDuplicateDependenciesForProjects(session, projects,
+                targetProjects, targetsOnly, settings, useResidentCache, producerIndex, metrics, summary), reachableScopes, metrics);
+        producerIndex.ifPresent(index -> logSkippedDependencies(index, metrics));
+        // counted on the final plan, after all filters
+        summary.addedPerRule(newProjectDependencies.getAddedPerRule());
 
         if (!newProjectDependencies.isEmpty()) {
-            addNewDependenciesToProjects(newProjectDependencies);
+            if (settings.getBoolean(ArtifactPrefetcher.ENABLED, false)) {
+                prefetchArtifacts(session, settings, newProjectDependencies, metrics);
+            }
+
+            try (Timer timer = metrics.start(Phase.APPLY)) {
+                addNewDependenciesToProjects(newProjectDependencies, metrics, summary);
+            }
+
+            try (Timer timer = metrics.start(Phase.GRAPH_UPDATE); Event event = metrics.events().graphUpdate()) {
+                event.setProjectCount(session.getProjectDependencyGraph().getSortedProjects().size());
+                event.setEdgeCount(checkDependencyGraph(session, newProjectDependencies, metrics));
+            }
+        }
+        // also without any new dependency, projects that received no test artifacts must not scan any dependency
+        try (Timer timer = metrics.start(Phase.APPLY)) {
+            configureDependenciesToScan(session, projects, newProjectDependencies);
+        }
+        if (shapeBefore != null) {
+            // the graph is built again by maven after all lifecycle participants ran
+            final Optional<ReactorShape> shapeAfter = !newProjectDependencies.isEmpty()
+                    ? dependencyGraphBuilder.newDependencyGraph(session).map(ReactorShape::of)
+                    : Optional.of(ReactorShape.of(session.getProjectDependencyGraph()));
+            if (shapeAfter.isPresent()) {
+                LOG.info("reactor {} before, {} after duplication", shapeBefore, shapeAfter.get());
+                metrics.setReactorShape(shapeBefore, shapeAfter.get());
+            }
+        }
 
-            LOG.info("rebuilding project dependency graph");
-            dependencyGraphBuilder.rebuildDependencyGraph(session);
+        if (summary.isEnabled() && LOG.isInfoEnabled()) {
+            summary.format().forEach(LOG::info);
+        }
+        if (ruleStatistics && summary.isCachedPlan()) {
+            LOG.info("no rule statistics recorded, cached duplication plan was used");
+        } else if (ruleStatistics) {
+            logRuleStatistics(session, projects);
         }
-        // TODO #3: build graph using GraphBuilder, as soon as available (needs maven 3.7.0, see https://github.com/apache/maven/pull/368 )
+        LOG.info("finished after {}ms.", metrics.finish());
+        ExtensionMetrics.reportFile(session, settings).ifPresent(metrics::write);
+    }
 
-        LOG.info("finished after {}ms.", System.currentTimeMillis() - startTime);
+    /**
+     * Checks the reactor edges introduced by the new dependencies. The build order is left to maven, which builds the project
+     * dependency graph again from the changed projects after all lifecycle participants ran.
+     *
+     * @return number of new reactor edges, {@code -1} if they were not checked
+     * @throws MavenExecutionException if the new edges introduce a cycle
+     */
+    private int checkDependencyGraph(final MavenSession session, final DuplicationPlan newProjectDependencies, final ExtensionMetrics metrics)
+            throws MavenExecutionException {
+        final Map<MavenProject, List<MavenProject>> upstreamProjects = DependencyGraphBuilder
+                .getDirectUpstreamProjects(dependencyGraphBuilder.getReactorGraph(session.getProjectDependencyGraph()));
+        final Optional<List<String[]>> newEdges = DependencyGraphBuilder.findNewEdges(upstreamProjects, newProjectDependencies);
+        if (!newEdges.isPresent()) {
+            // version ranges are only matched by maven's sorter, which also reports cycles
+            LOG.debug("new dependencies on reactor projects use version ranges, leaving the check to maven");
+            metrics.increment(Counter.GRAPH_CHECKS_SKIPPED);
+            return -1;
+        }
+        if (newEdges.get().isEmpty()) {
+            LOG.debug("no new reactor edges, build order unchanged");
+            metrics.increment(Counter.GRAPH_UNCHANGED);
+            return 0;
+        }
+        metrics.increment(Counter.GRAPH_CHECKED);
+        metrics.add(Counter.GRAPH_EDGES_ADDED, newEdges.get().size());
+        final List<String> cycle = DependencyGraphBuilder.findCycle(upstreamProjects, newEdges.get());
+        if (!cycle.isEmpty()) {
+            throw new MavenExecutionException("the duplicated dependencies introduce a cycle between the projects " + cycle,
+                    session.getRequest().getPom());
+        }
+        LOG.info("{} new reactor edges, leaving the build order to maven", newEdges.get().size());
+        return newEdges.get().size();
     }
 
-    private Map<MavenProject, DependencySet> createDuplicateDependenciesForProjects(final MavenSession session) {
-        final Map<MavenProject, DependencySet> newProjectDependencies = new LinkedHashMap<>();
-        for (final MavenProject project : session.getAllProjects()) {
-            final Optional<PluginMojo> pluginConfig = pluginConfigResolver.findPluginConfig(session, project);
-            if (!pluginConfig.isPresent()) {
-                LOG.info("[{}] did not find any plugin config", project.getName());
-                continue;
+    /**
+     * @return all projects of the reactor or, if {@link ExtensionSettings#isSelectedProjectsOnly()}, the selected projects and their
+     *         upstream projects
+     */
+    private List<MavenProject> getProjectsToPlan(final MavenSession session, final ExtensionSettings settings) {
+        if (!settings.isSelectedProjectsOnly()) {
+            return session.getAllProjects();
+        }
+        final ProjectDependencyGraph graph = session.getProjectDependencyGraph();
+        final List<MavenProject> result = DuplicationPropagator.withUpstreamProjects(dependencyGraphBuilder.getReactorGraph(graph),
+                session.getAllProjects(), graph.getSortedProjects());
+        LOG.debug("planning duplications for {} of {} projects", result.size(), session.getAllProjects().size());
+        return result;
+    }
+
+    /**
+     * Drops planned dependencies, whose scope cannot take effect in the requested build. The plan itself does not depend on the
+     * requested goals, so it can be cached.
+     */
+    private static DuplicationPlan retainReachableScopes(final DuplicationPlan plan, final ReachableScopes reachableScopes,
+            final ExtensionMetrics metrics) {
+        if (reachableScopes.isAll() || plan.isEmpty()) {
+            return plan;
+        }
+        final Set<String> droppedScopes = new TreeSet<>();
+        final DuplicationPlan result = plan.retain(key -> {
+            if (reachableScopes.isReachable(key.getScope())) {
+                return true;
             }
-            final PluginMojo config = pluginConfig.get();
-            LOG.debug("config for {}: {}", project.getName(), config);
-            if (!config.hasDefinedDuplications()) {
-                continue;
+            droppedScopes.add(key.getScope() != null ? key.getScope() : "compile");
+            return false;
+        });
+        final int dropped = plan.getTotalDependencyCount() - result.getTotalDependencyCount();
+        if (dropped > 0) {
+            LOG.info("not adding {} dependencies of scope {}, {}", dropped, String.join(", ", droppedScopes), reachableScopes);
+            metrics.add(Counter.DEPENDENCIES_OUT_OF_SCOPE, dropped);
+        }
+        return result;
+    }
+
+    /**
+     * Resolves the planned dependencies outside of the reactor concurrently, so missing artifacts are reported before any project
+     * is built.
+     */
+    private void prefetchArtifacts(final MavenSession session, final ExtensionSettings settings, final DuplicationPlan newProjectDependencies,
+            final ExtensionMetrics metrics) throws MavenExecutionException {
+        final Map<Artifact, ArtifactResolutionException> missing;
+        try (Timer timer = metrics.start(Phase.PREFETCH)) {
+            missing = new ArtifactPrefetcher(repositorySystem, session.getRepositorySession(), settings.getThreads(), metrics)
+                    .prefetch(newProjectDependencies, session.getAllProjects());
+        }
+        LOG.info("resolved {} duplicated artifacts up front", metrics.get(Counter.ARTIFACTS_PREFETCHED));
+        if (missing.isEmpty()) {
+            return;
+        }
+        final boolean failOnMissing = settings.getBoolean(ArtifactPrefetcher.FAIL_ON_MISSING, true);
+        for (final Entry<Artifact, ArtifactResolutionException> entry : missing.entrySet()) {
+            if (failOnMissing) {
+                LOG.error("unable to resolve duplicated dependency {}: {}", entry.getKey(), entry.getValue().getMessage());
+            } else {
+                LOG.warn("unable to resolve duplicated dependency {}: {}", entry.getKey(), entry.getValue().getMessage());
             }
-            for (final Dependency existingDependency : project.getDependencies()) {
-                final Optional<DependencyDuplication> foundDuplicationHolder = config.findFirstDuplicationConfig(existingDependency);
-                if (!foundDuplicationHolder.isPresent()) {
-                    continue;
-                }
-                final DependencyDuplication dependencyDuplication = foundDuplicationHolder.get();
+        }
+        if (failOnMissing) {
+            throw new MavenExecutionException("unable to resolve " + missing.size() + " duplicated dependencies: " + missing.keySet(),
+                    missing.values().iterator().next());
+        }
+    }
 
-                final List<Dependency> newDependencies = new ArrayList<>();
-                newDependencies.add(dependencyDuplication.doDuplicate(existingDependency));
-                LOG.debug("[{}] duplicating dependency {} because of {}",
-                        project.getName(), getNameForLog(project, existingDependency), dependencyDuplication.getDependencyKeys());
+    /**
+     * @return projects affected by the change set of the session, empty if no change set is given or all projects are affected
+     */
+    private Optional<Set<MavenProject>> getAffectedProjects(final MavenSession session, final ExtensionSettings settings) {
+        final Optional<ChangeSet> changeSet = ChangeSet.of(session, settings);
+        if (!changeSet.isPresent()) {
+            return Optional.empty();
+        }
+        final Optional<Set<MavenProject>> result = changeSet.get().getAffectedProjects(
+                dependencyGraphBuilder.getReactorGraph(session.getProjectDependencyGraph()), session.getAllProjects());
+        result.ifPresent(affected -> LOG.info("adding dependencies only to the {} of {} projects affected by the change set", affected.size(),
+                session.getAllProjects().size()));
+        return result;
+    }
 
-                if (!dependencyDuplication.getAdditionalDependencies().isEmpty()) {
-                    LOG.debug("[{}] adding additional dependencies {}", getNamesForLog(project, dependencyDuplication.getAdditionalDependencies()));
-                    newDependencies.addAll(dependencyDuplication.getAdditionalDependencies());
-                }
+    /**
+     * @return selected projects, that are affected by the change set, if given
+     */
+    private static Set<MavenProject> getTargetProjects(final MavenSession session, final Optional<Set<MavenProject>> affectedProjects) {
+        final Set<MavenProject> result = new HashSet<>(session.getProjectDependencyGraph().getSortedProjects());
+        affectedProjects.ifPresent(result::retainAll);
+        return result;
+    }
+
+    /**
+     * Logs per rule the dependencies on reactor projects, that were skipped because the project does not build them.
+     */
+    private static void logSkippedDependencies(final ProducerIndex producerIndex, final ExtensionMetrics metrics) {
+        if (producerIndex.getSkippedCount() == 0) {
+            return;
+        }
+        metrics.add(Counter.DEPENDENCIES_NOT_PRODUCED, producerIndex.getSkippedCount());
+        LOG.info("not adding {} dependencies on reactor projects, that do not build them:", producerIndex.getSkippedCount());
+        producerIndex.formatReport().forEach(line -> LOG.info("  {}", line));
+    }
 
-                final List<MavenProject> targetProjectsForNewDependencies = new ArrayList<>();
-                targetProjectsForNewDependencies.add(project);
-                if (dependencyDuplication.isAddDownstream()) {
-                    targetProjectsForNewDependencies.addAll(session.getProjectDependencyGraph().getDownstreamProjects(project, true));
+    private DuplicationPlan createDuplicateDependenciesForProjects(final MavenSession session, final List<MavenProject> projects,
+            final Set<MavenProject> targetProjects, final boolean targetsOnly, final ExtensionSettings settings, final boolean useResidentCache,
+            final Optional<ProducerIndex> producerIndex, final ExtensionMetrics metrics, final DuplicationSummary summary)
+            throws MavenExecutionException {
+        Optional<PlanCache> planCache = PlanCache.of(session, settings);
+        // the fingerprint only covers declared dependencies
+        if (planCache.isPresent() && hasTransitiveDuplications(session, projects)) {
+            LOG.info("not using plan cache, transitive dependencies are matched");
+            planCache = Optional.empty();
+        }
+        if (!planCache.isPresent()) {
+            return planDuplicateDependencies(session, projects, targetProjects, targetsOnly, settings, useResidentCache, producerIndex, metrics,
+                    summary);
+        }
+        final String fingerprint;
+        try (Timer timer = metrics.start(Phase.PLAN_CACHE)) {
+            final ProjectDependencyGraph graph = session.getProjectDependencyGraph();
+            fingerprint = planCache.get().fingerprint(projects, dependencyGraphBuilder.getReactorGraph(graph), targetProjects, targetsOnly,
+                    pluginConfigResolver::findPluginConfiguration, producerIndex);
+            final Optional<DuplicationPlan> cachedPlan = planCache.get().load(fingerprint, projects);
+            if (cachedPlan.isPresent()) {
+                LOG.info("using cached duplication plan");
+                summary.cachedPlan();
+                return cachedPlan.get();
+            }
+        }
+        final DuplicationPlan plan = planDuplicateDependencies(session, projects, targetProjects, targetsOnly, settings, useResidentCache,
+                producerIndex, metrics, summary);
+        try (Timer timer = metrics.start(Phase.PLAN_CACHE)) {
+            planCache.get().store(fingerprint, plan);
+        }
+        return plan;
+    }
+
+    private boolean hasTransitiveDuplications(final MavenSession session, final List<MavenProject> projects) {
+        for (final MavenProject project : projects) {
+            if (pluginConfigResolver.findPluginConfig(session, project).filter(PluginMojo::hasTransitiveDuplications).isPresent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param targetProjects projects that may receive dependencies from upstream projects
+     * @param targetsOnly {@code true}, if projects that are no target do not receive their own dependencies either
+     * @param producerIndex artifacts built by the reactor projects, if dependencies that are not built should be skipped
+     */
+    private DuplicationPlan planDuplicateDependencies(final MavenSession session, final List<MavenProject> projects,
+            final Set<MavenProject> targetProjects, final boolean targetsOnly, final ExtensionSettings settings, final boolean useResidentCache,
+            final Optional<ProducerIndex> producerIndex, final ExtensionMetrics metrics, final DuplicationSummary summary)
+            throws MavenExecutionException {
+        final DuplicationPropagator propagator = new DuplicationPropagator(projects);
+        // the collector starts a thread pool, it is only needed if a rule matches transitive dependencies
+        try (TransitiveDependencyCollector collector = hasTransitiveDuplications(session, projects)
+                ? new TransitiveDependencyCollector(repositorySystem, session.getRepositorySession(), session.getAllProjects(),
+                        settings.getThreads(), metrics)
+                : null) {
+            final Map<MavenProject, List<Contribution>> contributions = settings.isParallel() && projects.size() > 1
+                    ? findContributionsInParallel(session, projects, collector, useResidentCache, settings.getThreads(), metrics, summary)
+                    : null;
+            for (final MavenProject project : projects) {
+                final List<Contribution> projectContributions = contributions != null
+                        ? contributions.get(project)
+                        : findContributions(session, project, collector, useResidentCache, metrics, summary);
+                for (final Contribution contribution : projectContributions) {
+                    // filtered after the resident cache, the index depends on other projects
+                    final Optional<Contribution> produced = producerIndex.isPresent()
+                            ? producerIndex.get().retain(project, contribution)
+                            : Optional.of(contribution);
+                    produced.ifPresent(c -> propagator.add(project, c));
                 }
-                for (final MavenProject targetProject : targetProjectsForNewDependencies) {
-                    newProjectDependencies.computeIfAbsent(targetProject, p -> new DependencySet()).addAll(newDependencies);
+            }
+        }
+        try (Timer timer = metrics.start(Phase.PROPAGATION); Event event = metrics.events().propagation()) {
+            final ProjectDependencyGraph graph = session.getProjectDependencyGraph();
+            final DuplicationPlan result = propagator.propagate(dependencyGraphBuilder.getReactorGraph(graph), targetProjects, targetsOnly,
+                    metrics.events());
+            event.setProjectCount(result.getProjects().size());
+            event.setDependencyCount(result.getTotalDependencyCount());
+            return result;
+        }
+    }
+
+    /**
+     * Plans all projects concurrently. The result is applied in reactor order, so it does not differ from sequential planning.
+     */
+    private Map<MavenProject, List<Contribution>> findContributionsInParallel(final MavenSession session, final List<MavenProject> projects,
+            final TransitiveDependencyCollector collector, final boolean useResidentCache, final int threads, final ExtensionMetrics metrics,
+            final DuplicationSummary summary) throws MavenExecutionException {
+        LOG.debug("planning duplications using {} threads", threads);
+        final Map<MavenProject, List<Contribution>> result = new ConcurrentHashMap<>();
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        final ForkJoinPool pool = new ForkJoinPool(threads, forkJoinPool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setContextClassLoader(contextClassLoader);
+            return thread;
+        }, null, false);
+        try {
+            pool.submit(() -> projects.parallelStream().forEach(project -> {
+                result.put(project, findContributions(session, project, collector, useResidentCache, metrics, summary));
+            })).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MavenExecutionException("interrupted while planning dependency duplications", e);
+        } catch (final ExecutionException e) {
+            throw new MavenExecutionException("unable to plan dependency duplications", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    /**
+     * @param collector collector of transitive dependencies, {@code null} if no project matches transitive dependencies
+     * @param useResidentCache {@code true}, if results may be kept in the {@link ResidentCache}
+     */
+    private List<Contribution> findContributions(final MavenSession session, final MavenProject project,
+            final TransitiveDependencyCollector collector, final boolean useResidentCache, final ExtensionMetrics metrics,
+            final DuplicationSummary summary) {
+        metrics.increment(Counter.PROJECTS_VISITED);
+        final Optional<PluginMojo> pluginConfig;
+        try (Timer timer = metrics.start(Phase.CONFIG_RESOLUTION); Event event = metrics.events().configResolution(project)) {
+            pluginConfig = pluginConfigResolver.findPluginConfig(session, project);
+            pluginConfig.ifPresent(config -> event.setRuleCount(config.getDuplications().size()));
+        }
+        if (!pluginConfig.isPresent()) {
+            summary.projectWithoutConfig();
+            if (summary.isEnabled()) {
+                LOG.debug("[{}] did not find any plugin config", project.getName());
+            } else {
+                LOG.info("[{}] did not find any plugin config", project.getName());
+            }
+            return Collections.emptyList();
+        }
+        final PluginMojo config = pluginConfig.get();
+        LOG.debug("config for {}: {}", project.getName(), config);
+        if (!config.hasDefinedDuplications()) {
+            return Collections.emptyList();
+        }
+        // transitive dependencies may change without any change to the project
+        final boolean resident = useResidentCache && !config.hasTransitiveDuplications();
+        if (resident) {
+            final Optional<List<Contribution>> cached = residentCache.get(project, config, summary.isTrackRules());
+            if (cached.isPresent()) {
+                metrics.increment(Counter.RESIDENT_CACHE_HITS);
+                return cached.get();
+            }
+        }
+        List<Dependency> transitiveDependencies = Collections.emptyList();
+        if (config.hasTransitiveDuplications()) {
+            try (Timer timer = metrics.start(Phase.TRANSITIVE_COLLECTION)) {
+                transitiveDependencies = collector.collect(project);
+            }
+        }
+        final List<Contribution> result;
+        try (Timer timer = metrics.start(Phase.MATCHING); Event event = metrics.events().matching(project)) {
+            result = findContributions(project, config, transitiveDependencies, metrics, summary.isTrackRules());
+            event.setRuleCount(config.getDuplications().size());
+            event.setDependencyCount(project.getDependencies().size() + transitiveDependencies.size());
+            event.setMatchCount(result.size());
+        }
+        if (resident) {
+            residentCache.put(project, config, summary.isTrackRules(), result);
+        }
+        return result;
+    }
+
+    private List<Contribution> findContributions(final MavenProject project, final PluginMojo config,
+            final List<Dependency> transitiveDependencies, final ExtensionMetrics metrics, final boolean trackRules) {
+        final List<Contribution> result = new ArrayList<>();
+        metrics.add(Counter.DEPENDENCIES_EXAMINED, project.getDependencies().size() + transitiveDependencies.size());
+        for (final Dependency existingDependency : project.getDependencies()) {
+            final Optional<DependencyDuplication> foundDuplicationHolder = config.findFirstDuplicationConfig(existingDependency);
+            if (foundDuplicationHolder.isPresent()) {
+                result.add(createContribution(project, existingDependency, foundDuplicationHolder.get(), metrics, trackRules));
+            }
+        }
+        for (final Dependency transitiveDependency : transitiveDependencies) {
+            final Optional<DependencyDuplication> foundDuplicationHolder = config.findFirstDuplicationConfig(transitiveDependency);
+            if (foundDuplicationHolder.isPresent() && foundDuplicationHolder.get().isMatchTransitive()) {
+                result.add(createContribution(project, transitiveDependency, foundDuplicationHolder.get(), metrics, trackRules));
+            }
+        }
+        return result;
+    }
+
+    private Contribution createContribution(final MavenProject project, final Dependency existingDependency,
+            final DependencyDuplication dependencyDuplication, final ExtensionMetrics metrics, final boolean trackRules) {
+        metrics.increment(Counter.MATCHES);
+        final List<PlannedDependency> newDependencies = new ArrayList<>();
+        newDependencies.add(dependencyDuplication.planDuplicate(existingDependency));
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("[{}] duplicating dependency {} because of {}",
+                    project.getName(), getNameForLog(project, existingDependency), dependencyDuplication.getDependencyKeysAndPatterns());
+        }
+
+        if (!dependencyDuplication.getAdditionalDependencies().isEmpty()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("[{}] adding additional dependencies {}",
+                        project.getName(), getNamesForLog(project, dependencyDuplication.getAdditionalDependencies()));
+            }
+            newDependencies.addAll(dependencyDuplication.planAdditionalDependencies());
+        }
+
+        final String rule = trackRules ? dependencyDuplication.getDependencyKeysAndPatterns().toString() : null;
+        return new Contribution(newDependencies, dependencyDuplication.isAddDownstream(), rule);
+    }
+
+    /**
+     * Logs the statistics of each distinct configuration, named after the first project using it.
+     */
+    private void logRuleStatistics(final MavenSession session, final List<MavenProject> projects) {
+        final Map<RuleStatistics, List<String>> projectsPerStatistics = new LinkedHashMap<>();
+        for (final MavenProject project : projects) {
+            pluginConfigResolver.findPluginConfig(session, project)
+                    .flatMap(PluginMojo::getRuleStatistics)
+                    .ifPresent(statistics -> projectsPerStatistics.computeIfAbsent(statistics, s -> new ArrayList<>()).add(project.getName()));
+        }
+        for (final Entry<RuleStatistics, List<String>> entry : projectsPerStatistics.entrySet()) {
+            final List<String> names = entry.getValue();
+            LOG.info("rule statistics for configuration of {}{}:", names.get(0),
+                    names.size() > 1 ? " and " + (names.size() - 1) + " other projects" : "");
+            entry.getKey().format().forEach(line -> LOG.info("  {}", line));
+        }
+    }
+
+    private void addNewDependenciesToProjects(final DuplicationPlan newProjectDependencies, final ExtensionMetrics metrics,
+            final DuplicationSummary summary) {
+        final boolean logDetails = summary.isEnabled() ? LOG.isDebugEnabled() : LOG.isInfoEnabled();
+        for (final MavenProject project : newProjectDependencies.getProjects()) {
+            final List<Dependency> newDependencies = newProjectDependencies.getDependencies(project);
+            if (logDetails) {
+                final Collection<String> names = getNamesForLog(project, newDependencies);
+                if (summary.isEnabled()) {
+                    LOG.debug("[{}] adding dependencies: {}", project.getName(), names);
+                } else {
+                    LOG.info("[{}] adding dependencies: {}", project.getName(), names);
                 }
             }
+            project.getDependencies().addAll(newDependencies);
+            metrics.add(Counter.DEPENDENCIES_ADDED, newDependencies.size());
+            summary.added(project, newDependencies.size());
         }
-        return newProjectDependencies;
     }
 
-    private void addNewDependenciesToProjects(final Map<MavenProject, DependencySet> newProjectDependencies) {
-        for (final Entry<MavenProject, DependencySet> entry : newProjectDependencies.entrySet()) {
-            final MavenProject project = entry.getKey();
-            final DependencySet newDependencies = entry.getValue();
-            LOG.info("[{}] adding dependencies: {}", project.getName(), getNamesForLog(project, newDependencies.asSet()));
-            project.getDependencies().addAll(newDependencies.asSet());
+    /**
+     * Sets the surefire {@code dependenciesToScan} of all projects, whose configuration asks for it.
+     */
+    private void configureDependenciesToScan(final MavenSession session, final List<MavenProject> projects,
+            final DuplicationPlan newProjectDependencies) {
+        for (final MavenProject project : projects) {
+            final Optional<PluginMojo> config = pluginConfigResolver.findPluginConfig(session, project);
+            if (config.isPresent() && config.get().isConfigureDependenciesToScan()) {
+                final List<String> artifacts = SurefireConfigurer.configure(project, newProjectDependencies.getDependencies(project),
+                        config.get().getDependenciesToScanIncludes());
+                LOG.debug("[{}] dependenciesToScan: {}", project.getName(), artifacts);
+            }
         }
     }
 
     private Collection<String> getNamesForLog(final MavenProject project, final Collection<Dependency> dependencies) {
-        return dependencies.stream()
-                .map(dependency -> getNameForLog(project, dependency))
-                .collect(Collectors.toList());
+        final List<String> result = new ArrayList<>(dependencies.size());
+        for (final Dependency dependency : dependencies) {
+            result.add(getNameForLog(project, dependency));
+        }
+        return result;
     }
 
     private String getNameForLog(final MavenProject project, final Dependency dependency) {
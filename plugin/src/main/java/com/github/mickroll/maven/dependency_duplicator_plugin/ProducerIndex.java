@@ -0,0 +1,289 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.model.Resource;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.eclipse.aether.artifact.ArtifactType;
+import org.eclipse.aether.artifact.ArtifactTypeRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.DuplicationPropagator.Contribution;
+
+/**
+ * Knows which artifacts the projects of the reactor build, to skip duplicated dependencies on reactor projects, that can never be
+ * satisfied (e.g. a {@code test-jar} of a project without an execution of the {@code test-jar} goal or without any tests).
+ * <p>
+ * Built once per session from the packaging and the build plugins of all projects. Only the main artifact and the well known
+ * classifiers {@code tests}, {@code test-sources}, {@code sources}, {@code javadoc} and {@code test-javadoc} are judged, whose
+ * producing goals are known. Other classifiers, and all artifacts of projects using a plugin that attaches arbitrary artifacts
+ * (e.g. {@code build-helper-maven-plugin}), are assumed to be built. A project is assumed to have tests, if a test source root or
+ * test resource directory exists or a plugin execution may generate test sources or resources.
+ *
+ * @author mickroll
+ */
+public final class ProducerIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProducerIndex.class);
+
+    /**
+     * Skips duplicated dependencies on reactor projects, that do not build the required artifact.
+     */
+    public static final String ENABLED = ExtensionSettings.PREFIX + "producerIndex";
+
+    private static final Set<String> KNOWN_CLASSIFIERS = new HashSet<>(
+            Arrays.asList("tests", "test-sources", "sources", "javadoc", "test-javadoc"));
+
+    private static final Set<String> TEST_GENERATION_PHASES = new HashSet<>(
+            Arrays.asList("generate-test-sources", "process-test-sources", "generate-test-resources", "process-test-resources"));
+
+    private static final Set<String> ATTACHING_PLUGINS = new HashSet<>(
+            Arrays.asList("build-helper-maven-plugin", "maven-assembly-plugin", "maven-shade-plugin", "maven-antrun-plugin"));
+
+    private final ArtifactTypeRegistry typeRegistry;
+    private final Map<String, Producer> producers = new HashMap<>();
+    private final Map<String, Map<String, Integer>> skippedPerRule = new LinkedHashMap<>();
+    private int skippedCount;
+
+    ProducerIndex(final ArtifactTypeRegistry typeRegistry, final Collection<MavenProject> reactorProjects) {
+        this.typeRegistry = typeRegistry;
+        for (final MavenProject project : reactorProjects) {
+            producers.put(project.getGroupId() + ':' + project.getArtifactId() + ':' + project.getVersion(), producerOf(project));
+        }
+    }
+
+    /**
+     * @param session current session
+     * @return index of all projects of the reactor
+     */
+    public static ProducerIndex of(final MavenSession session) {
+        return new ProducerIndex(session.getRepositorySession().getArtifactTypeRegistry(), session.getAllProjects());
+    }
+
+    /**
+     * @param key dependency
+     * @return {@code false}, if the dependency refers to a project of the reactor, that certainly does not build it
+     */
+    public boolean isProduced(final DependencyKey key) {
+        final Producer producer = producers.get(key.getGroupId() + ':' + key.getArtifactId() + ':' + key.getVersion());
+        if (producer == null || producer.attachesAnything) {
+            return true;
+        }
+        final String type = key.getType() != null ? key.getType() : "jar";
+        final ArtifactType artifactType = typeRegistry.get(type);
+        final String extension = artifactType != null ? artifactType.getExtension() : type;
+        final String classifier = key.getClassifier() != null && !key.getClassifier().isEmpty()
+                ? key.getClassifier()
+                : artifactType != null ? artifactType.getClassifier() : "";
+        if (classifier.isEmpty()) {
+            return producer.mainExtension == null || producer.mainExtension.equals(extension) || "pom".equals(extension);
+        }
+        return !KNOWN_CLASSIFIERS.contains(classifier) || producer.attached.contains(extension + ':' + classifier);
+    }
+
+    /**
+     * Removes the dependencies of a contribution, that are not produced, and records them for {@link #formatReport()}.
+     *
+     * @param project project the contribution was found in
+     * @param contribution contribution
+     * @return contribution with the produced dependencies, empty if none is left
+     */
+    Optional<Contribution> retain(final MavenProject project, final Contribution contribution) {
+        final List<PlannedDependency> retained = new ArrayList<>(contribution.dependencies.size());
+        for (final PlannedDependency dependency : contribution.dependencies) {
+            if (isProduced(dependency.getKey())) {
+                retained.add(dependency);
+                continue;
+            }
+            final DependencyKey key = dependency.getKey();
+            final String artifact = key.getGroupId() + ':' + key.getArtifactId() + ':' + key.getType()
+                    + (key.getClassifier() != null ? ":" + key.getClassifier() : "") + ':' + key.getVersion();
+            LOG.debug("[{}] not adding {}, the reactor project does not build it", project.getName(), artifact);
+            skippedPerRule.computeIfAbsent(contribution.rule != null ? contribution.rule : "?", rule -> new LinkedHashMap<>())
+                    .merge(artifact, 1, Integer::sum);
+            skippedCount++;
+        }
+        if (retained.size() == contribution.dependencies.size()) {
+            return Optional.of(contribution);
+        }
+        return retained.isEmpty() ? Optional.empty() : Optional.of(new Contribution(retained, contribution.addDownstream, contribution.rule));
+    }
+
+    /**
+     * @return number of dependencies removed by {@link #retain(MavenProject, Contribution)}
+     */
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * @return per rule the skipped artifacts with the number of projects they were skipped in, one line per entry
+     */
+    public List<String> formatReport() {
+        final List<String> lines = new ArrayList<>();
+        for (final Entry<String, Map<String, Integer>> rule : skippedPerRule.entrySet()) {
+            lines.add(rule.getKey() + ':');
+            rule.getValue().forEach((artifact, count) -> lines.add("  " + artifact + " (" + count + (count == 1 ? " project)" : " projects)")));
+        }
+        return lines;
+    }
+
+    /**
+     * @param project project of the reactor
+     * @return description of the artifacts the project builds, changes if the result of {@link #isProduced(DependencyKey)} may
+     *         change
+     */
+    public String describe(final MavenProject project) {
+        final Producer producer = producers.get(project.getGroupId() + ':' + project.getArtifactId() + ':' + project.getVersion());
+        return producer == null ? "-" : producer.toString();
+    }
+
+    private Producer producerOf(final MavenProject project) {
+        final ArtifactType packagingType = typeRegistry.get(project.getPackaging());
+        final String mainExtension = packagingType != null ? packagingType.getExtension() : null;
+        final Set<String> attached = new TreeSet<>();
+        for (final Plugin plugin : project.getBuildPlugins()) {
+            if (ATTACHING_PLUGINS.contains(plugin.getArtifactId())) {
+                return new Producer(mainExtension, Collections.emptySet(), true);
+            }
+            for (final PluginExecution execution : plugin.getExecutions()) {
+                for (final String goal : execution.getGoals()) {
+                    final Optional<String> classifier = attachedClassifier(project, plugin, execution, goal);
+                    if (classifier.isPresent() && classifier.get().contains("${")) {
+                        // not interpolated, may be anything
+                        return new Producer(mainExtension, Collections.emptySet(), true);
+                    }
+                    classifier.ifPresent(c -> attached.add("jar:" + c));
+                }
+            }
+        }
+        return new Producer(mainExtension, attached, false);
+    }
+
+    /**
+     * @return classifier of the jar attached by the goal, if it is known to attach one
+     */
+    private static Optional<String> attachedClassifier(final MavenProject project, final Plugin plugin, final PluginExecution execution,
+            final String goal) {
+        switch (plugin.getArtifactId()) {
+            case "maven-jar-plugin":
+                if ("test-jar".equals(goal)) {
+                    return hasTestContent(project) ? Optional.of(configuredClassifier(execution).orElse("tests")) : Optional.empty();
+                }
+                return "jar".equals(goal) ? configuredClassifier(execution) : Optional.empty();
+            case "maven-source-plugin":
+                if ("jar".equals(goal) || "jar-no-fork".equals(goal)) {
+                    return Optional.of("sources");
+                }
+                return "test-jar".equals(goal) || "test-jar-no-fork".equals(goal) ? Optional.of("test-sources") : Optional.empty();
+            case "maven-javadoc-plugin":
+                if ("jar".equals(goal)) {
+                    return Optional.of("javadoc");
+                }
+                return "test-jar".equals(goal) ? Optional.of("test-javadoc") : Optional.empty();
+            default:
+                return Optional.empty();
+        }
+    }
+
+    /**
+     * @return configured classifier of the execution, the plugin configuration is already merged into it
+     */
+    private static Optional<String> configuredClassifier(final PluginExecution execution) {
+        if (!(execution.getConfiguration() instanceof Xpp3Dom)) {
+            return Optional.empty();
+        }
+        final Xpp3Dom classifier = ((Xpp3Dom) execution.getConfiguration()).getChild("classifier");
+        return classifier != null && classifier.getValue() != null && !classifier.getValue().trim().isEmpty()
+                ? Optional.of(classifier.getValue().trim())
+                : Optional.empty();
+    }
+
+    /**
+     * Test sources generated during the build do not exist yet. Any execution bound to a phase generating test sources or
+     * resources, or with a goal named like it (e.g. {@code generate-test-sources}, {@code add-test-resource}), is assumed to
+     * generate some. Executions of the default lifecycle bindings ({@code default-*}) are ignored, they only process existing
+     * files.
+     *
+     * @return {@code true}, if a test source root or test resource directory exists or test sources may be generated, otherwise
+     *         the {@code test-jar} is empty
+     */
+    private static boolean hasTestContent(final MavenProject project) {
+        for (final Plugin plugin : project.getBuildPlugins()) {
+            for (final PluginExecution execution : plugin.getExecutions()) {
+                if (!execution.getId().startsWith("default-") && generatesTestContent(execution)) {
+                    return true;
+                }
+            }
+        }
+        for (final String root : project.getTestCompileSourceRoots()) {
+            if (new File(root).isDirectory()) {
+                return true;
+            }
+        }
+        for (final Resource resource : project.getBuild().getTestResources()) {
+            if (resource.getDirectory() != null && new File(resource.getDirectory()).isDirectory()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean generatesTestContent(final PluginExecution execution) {
+        if (execution.getPhase() != null) {
+            return TEST_GENERATION_PHASES.contains(execution.getPhase());
+        }
+        for (final String goal : execution.getGoals()) {
+            final String name = goal.toLowerCase(Locale.ROOT);
+            if (name.contains("test") && (name.contains("generate") || name.contains("source") || name.contains("resource"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Artifacts built by one project.
+     */
+    private static final class Producer {
+        /**
+         * extension of the main artifact, {@code null} if the packaging is unknown
+         */
+        final String mainExtension;
+        /**
+         * attached artifacts as {@code extension:classifier}
+         */
+        final Set<String> attached;
+        final boolean attachesAnything;
+
+        Producer(final String mainExtension, final Set<String> attached, final boolean attachesAnything) {
+            this.mainExtension = mainExtension;
+            this.attached = attached;
+            this.attachesAnything = attachesAnything;
+        }
+
+        @Override
+        public String toString() {
+            return attachesAnything ? "*" : mainExtension + " " + attached;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Determines from the requested goals and properties of a session, which dependency scopes can take effect in the build.
+ * <p>
+ * Dependencies of scope {@code test} are only used from phase {@code generate-test-sources} on and not at all, if tests are
+ * skipped using {@code -Dmaven.test.skip}. With {@code -DskipTests} the tests are still compiled, so test dependencies are
+ * needed. A build that only runs phases of the clean lifecycle uses no dependencies. Goals of plugins invoked directly (e.g.
+ * {@code dependency:tree}) and unknown goals may use any scope.
+ * <p>
+ * Only applied, if {@link #LIFECYCLE_AWARE} is enabled, as plugins bound to earlier phases may need test dependencies.
+ *
+ * @author mickroll
+ */
+public final class ReachableScopes {
+
+    /**
+     * Set to {@code true} to only add dependencies of scopes, that can take effect for the requested goals.
+     */
+    public static final String LIFECYCLE_AWARE = ExtensionSettings.PREFIX + "lifecycleAware";
+
+    static final ReachableScopes ALL = new ReachableScopes(Level.ALL, "all scopes reachable");
+
+    private static final List<String> CLEAN_PHASES = Arrays.asList("pre-clean", "clean", "post-clean");
+
+    private static final List<String> DEFAULT_PHASES = Arrays.asList("validate", "initialize", "generate-sources", "process-sources",
+            "generate-resources", "process-resources", "compile", "process-classes", "generate-test-sources", "process-test-sources",
+            "generate-test-resources", "process-test-resources", "test-compile", "process-test-classes", "test", "prepare-package", "package",
+            "pre-integration-test", "integration-test", "post-integration-test", "verify", "install", "deploy");
+
+    private static final int FIRST_TEST_PHASE = DEFAULT_PHASES.indexOf("generate-test-sources");
+
+    private enum Level {
+        NONE, MAIN, ALL
+    }
+
+    private final Level level;
+    private final String reason;
+
+    private ReachableScopes(final Level level, final String reason) {
+        this.level = level;
+        this.reason = reason;
+    }
+
+    /**
+     * @param goals goals and phases requested on the command line
+     * @param settings settings of the current session
+     * @return scopes that can take effect
+     */
+    public static ReachableScopes of(final List<String> goals, final ExtensionSettings settings) {
+        if (!settings.getBoolean(LIFECYCLE_AWARE, false) || goals.isEmpty()) {
+            return ALL;
+        }
+        int lastDefaultPhase = -1;
+        for (final String goal : goals) {
+            if (CLEAN_PHASES.contains(goal)) {
+                continue;
+            }
+            final int phase = DEFAULT_PHASES.indexOf(goal);
+            if (phase < 0) {
+                // plugin goal or phase of another lifecycle
+                return ALL;
+            }
+            lastDefaultPhase = Math.max(lastDefaultPhase, phase);
+        }
+        if (lastDefaultPhase < 0) {
+            return new ReachableScopes(Level.NONE, "only clean phases requested");
+        }
+        if (lastDefaultPhase < FIRST_TEST_PHASE) {
+            return new ReachableScopes(Level.MAIN, "no test phase requested");
+        }
+        if (settings.getBoolean("maven.test.skip", false)) {
+            return new ReachableScopes(Level.MAIN, "maven.test.skip is set");
+        }
+        return ALL;
+    }
+
+    /**
+     * @return {@code true}, if all scopes can take effect
+     */
+    public boolean isAll() {
+        return level == Level.ALL;
+    }
+
+    /**
+     * @return {@code true}, if no scope can take effect
+     */
+    public boolean isNone() {
+        return level == Level.NONE;
+    }
+
+    /**
+     * @param scope scope of a dependency, {@code null} for the default scope
+     * @return {@code true}, if a dependency of the given scope can take effect
+     */
+    public boolean isReachable(final String scope) {
+        switch (level) {
+            case ALL:
+                return true;
+            case MAIN:
+                return !"test".equals(scope);
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return reason;
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Longest path and maximum width of a project dependency graph.
+ * <p>
+ * Assuming every project takes the same time to build, the longest path is the minimum number of project builds that have to run
+ * one after another, even with unlimited threads ({@code -T}). The maximum width is the largest number of projects that are ready
+ * to be built at the same time, if every project is built as early as possible.
+ *
+ * @author mickroll
+ */
+public final class ReactorShape {
+
+    private final int longestPath;
+    private final int maxWidth;
+
+    ReactorShape(final int longestPath, final int maxWidth) {
+        this.longestPath = longestPath;
+        this.maxWidth = maxWidth;
+    }
+
+    /**
+     * @param graph graph of the projects being built
+     * @return shape of the graph
+     */
+    public static ReactorShape of(final ProjectDependencyGraph graph) {
+        final Map<MavenProject, List<MavenProject>> upstreamProjects = DependencyGraphBuilder.getDirectUpstreamProjects(graph);
+        final Map<MavenProject, Integer> depth = new IdentityHashMap<>();
+        final Map<Integer, Integer> projectsPerDepth = new HashMap<>();
+        int longestPath = 0;
+        int maxWidth = 0;
+        for (final MavenProject project : graph.getSortedProjects()) {
+            int projectDepth = 1;
+            for (final MavenProject upstream : upstreamProjects.getOrDefault(project, Collections.emptyList())) {
+                projectDepth = Math.max(projectDepth, depth.getOrDefault(upstream, 0) + 1);
+            }
+            depth.put(project, projectDepth);
+            longestPath = Math.max(longestPath, projectDepth);
+            maxWidth = Math.max(maxWidth, projectsPerDepth.merge(projectDepth, 1, Integer::sum));
+        }
+        return new ReactorShape(longestPath, maxWidth);
+    }
+
+    /**
+     * @return number of projects on the longest path through the graph
+     */
+    public int getLongestPath() {
+        return longestPath;
+    }
+
+    /**
+     * @return largest number of projects that can be built at the same time
+     */
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    @Override
+    public String toString() {
+        return "longest path " + longestPath + ", max width " + maxWidth;
+    }
+}
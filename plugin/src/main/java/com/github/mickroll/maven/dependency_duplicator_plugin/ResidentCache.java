@@ -0,0 +1,107 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.DuplicationPropagator.Contribution;
+import com.github.mickroll.maven.dependency_duplicator_plugin.config.PluginMojo;
+
+/**
+ * Keeps the contributions found in each project between builds of a long-lived Maven process (e.g. the Maven daemon
+ * {@code mvnd}), where the components of this extension stay alive.
+ * <p>
+ * A cached result is only used, if it was found with the same configured {@link PluginMojo} instance (configurations are kept by
+ * {@link PluginConfigResolver} while the resident cache is enabled) and the {@link DependencyKey}s of the dependencies of the
+ * project are unchanged. These are the only inputs of the matching, however they were changed (POM files, parents, properties
+ * or profiles). Results of configurations that match transitive dependencies are not kept.
+ *
+ * @author mickroll
+ */
+public class ResidentCache {
+
+    /**
+     * Keeps configurations and results between builds.
+     */
+    public static final String ENABLED = ExtensionSettings.PREFIX + "residentCache";
+
+    /**
+     * Maximum number of projects, whose results are kept.
+     */
+    public static final String SIZE = ExtensionSettings.PREFIX + "residentCache.size";
+
+    static final int DEFAULT_SIZE = 10_000;
+
+    private final LruCache<String, Entry> projects = new LruCache<>(DEFAULT_SIZE);
+
+    /**
+     * @param settings settings of the current session
+     * @return {@code true}, if the cache is enabled
+     */
+    public boolean configure(final ExtensionSettings settings) {
+        if (!settings.getBoolean(ENABLED, false)) {
+            projects.clear();
+            return false;
+        }
+        projects.setMaxSize(Math.max(0, settings.getInt(SIZE, DEFAULT_SIZE)));
+        return true;
+    }
+
+    /**
+     * @param project project
+     * @param config configuration of the project
+     * @param trackRules {@code true}, if contributions have to name their rule
+     * @return contributions found in an earlier build, if still valid
+     */
+    public Optional<List<Contribution>> get(final MavenProject project, final PluginMojo config, final boolean trackRules) {
+        final Entry entry = projects.get(project.getId());
+        if (entry == null || entry.config != config || entry.trackRules != trackRules) {
+            return Optional.empty();
+        }
+        return entry.stamp.equals(stamp(project)) ? Optional.of(entry.contributions) : Optional.empty();
+    }
+
+    /**
+     * Keeps the contributions found in a project.
+     *
+     * @param project project
+     * @param config configuration of the project
+     * @param trackRules {@code true}, if contributions name their rule
+     * @param contributions contributions found in the project
+     */
+    public void put(final MavenProject project, final PluginMojo config, final boolean trackRules, final List<Contribution> contributions) {
+        projects.put(project.getId(), new Entry(config, stamp(project), trackRules, contributions));
+    }
+
+    int size() {
+        return projects.size();
+    }
+
+    /**
+     * @return keys of the dependencies of the project, in declaration order
+     */
+    private static List<DependencyKey> stamp(final MavenProject project) {
+        final List<DependencyKey> result = new ArrayList<>(project.getDependencies().size());
+        for (final Dependency dependency : project.getDependencies()) {
+            result.add(DependencyKey.of(dependency));
+        }
+        return result;
+    }
+
+    private static final class Entry {
+        final PluginMojo config;
+        final List<DependencyKey> stamp;
+        final boolean trackRules;
+        final List<Contribution> contributions;
+
+        Entry(final PluginMojo config, final List<DependencyKey> stamp, final boolean trackRules, final List<Contribution> contributions) {
+            this.config = config;
+            this.stamp = stamp;
+            this.trackRules = trackRules;
+            this.contributions = contributions;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Replaces the {@code dependenciesToScan} of the surefire configuration of a project with exactly the test artifacts, that were
+ * added to the project.
+ * <p>
+ * The configuration of the plugin and of all of its executions is changed, since the effective model already contains the plugin
+ * configuration in each execution. Configurations are copied before they are changed, because they may be shared with other
+ * projects.
+ *
+ * @author mickroll
+ */
+public final class SurefireConfigurer {
+
+    static final String SUREFIRE_KEY = "org.apache.maven.plugins:maven-surefire-plugin";
+
+    private static final String DEPENDENCIES_TO_SCAN = "dependenciesToScan";
+    private static final String INCLUDES = "includes";
+    private static final String TEST_JAR = "test-jar";
+    private static final String TESTS = "tests";
+
+    private SurefireConfigurer() {
+    }
+
+    /**
+     * @param addedDependencies dependencies added to a project
+     * @return test artifacts among the given dependencies, in the form {@code groupId:artifactId:type:classifier}
+     */
+    static List<String> dependenciesToScan(final List<Dependency> addedDependencies) {
+        final Set<String> result = new LinkedHashSet<>();
+        for (final Dependency dependency : addedDependencies) {
+            final boolean testJar = TEST_JAR.equals(dependency.getType());
+            if (testJar || TESTS.equals(dependency.getClassifier())) {
+                final String classifier = dependency.getClassifier() != null ? dependency.getClassifier() : TESTS;
+                result.add(dependency.getGroupId() + ':' + dependency.getArtifactId() + ':' + dependency.getType() + ':' + classifier);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Replaces {@code dependenciesToScan} (and {@code includes}, if given) in the surefire configuration of the project. If no
+     * test artifacts were added, {@code dependenciesToScan} is removed, so surefire does not scan any dependency.
+     *
+     * @param project project
+     * @param addedDependencies dependencies added to the project
+     * @param includes test class includes to set, if test artifacts were added, may be empty
+     * @return artifacts to scan, empty if the project has no surefire plugin or no test artifacts were added
+     */
+    public static List<String> configure(final MavenProject project, final List<Dependency> addedDependencies, final List<String> includes) {
+        final Plugin surefire = project.getBuild() != null ? project.getBuild().getPluginsAsMap().get(SUREFIRE_KEY) : null;
+        if (surefire == null) {
+            return new ArrayList<>();
+        }
+        final List<String> artifacts = dependenciesToScan(addedDependencies);
+        surefire.setConfiguration(configure((Xpp3Dom) surefire.getConfiguration(), artifacts, includes));
+        for (final PluginExecution execution : surefire.getExecutions()) {
+            execution.setConfiguration(configure((Xpp3Dom) execution.getConfiguration(), artifacts, includes));
+        }
+        return artifacts;
+    }
+
+    static Xpp3Dom configure(final Xpp3Dom configuration, final List<String> artifacts, final List<String> includes) {
+        if (configuration == null && artifacts.isEmpty()) {
+            return null;
+        }
+        final Xpp3Dom result = configuration != null ? new Xpp3Dom(configuration) : new Xpp3Dom("configuration");
+        removeChildren(result, DEPENDENCIES_TO_SCAN);
+        if (artifacts.isEmpty()) {
+            return result;
+        }
+        result.addChild(list(DEPENDENCIES_TO_SCAN, "dependency", artifacts));
+        if (!includes.isEmpty()) {
+            removeChildren(result, INCLUDES);
+            result.addChild(list(INCLUDES, "include", includes));
+        }
+        return result;
+    }
+
+    private static void removeChildren(final Xpp3Dom configuration, final String name) {
+        for (int i = configuration.getChildCount() - 1; i >= 0; i--) {
+            if (name.equals(configuration.getChild(i).getName())) {
+                configuration.removeChild(i);
+            }
+        }
+    }
+
+    private static Xpp3Dom list(final String name, final String itemName, final List<String> values) {
+        final Xpp3Dom result = new Xpp3Dom(name);
+        for (final String value : values) {
+            final Xpp3Dom item = new Xpp3Dom(itemName);
+            item.setValue(value);
+            result.addChild(item);
+        }
+        return result;
+    }
+}
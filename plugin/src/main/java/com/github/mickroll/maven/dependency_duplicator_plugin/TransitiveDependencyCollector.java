@@ -0,0 +1,258 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactDescriptorException;
+import org.eclipse.aether.resolution.ArtifactDescriptorRequest;
+import org.eclipse.aether.resolution.ArtifactDescriptorResult;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResolutionException;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionMetrics.Counter;
+
+/**
+ * Collects the transitive dependencies of projects, without resolving any artifact files.
+ * <p>
+ * Only the descriptors (POMs) of dependencies are read, using the repository session of the build, so offline builds work
+ * against the local repository. Dependencies on projects of the reactor are taken from the project model. The direct
+ * dependencies of each artifact are read once per session and shared by all projects, descriptors are read concurrently, one
+ * level of the dependency tree at a time.
+ * <p>
+ * The result follows Maven's rules for transitive dependencies (scopes, optional dependencies, exclusions), but conflicts are
+ * simply resolved by "nearest wins", dependency management of the project is ignored.
+ *
+ * @author mickroll
+ */
+public class TransitiveDependencyCollector implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransitiveDependencyCollector.class);
+
+    private static final String REQUEST_CONTEXT = "dependency-duplicator";
+
+    private final RepositorySystem repositorySystem;
+    private final RepositorySystemSession repositorySession;
+    private final ExtensionMetrics metrics;
+    private final Map<String, MavenProject> reactorProjects = new HashMap<>();
+    private final Map<String, CompletableFuture<List<Dependency>>> directDependencies = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    /**
+     * @param repositorySystem repository system
+     * @param repositorySession repository session of the build
+     * @param reactorProjects all projects of the reactor
+     * @param threads number of threads used to read descriptors
+     * @param metrics metrics of the current run
+     */
+    public TransitiveDependencyCollector(final RepositorySystem repositorySystem, final RepositorySystemSession repositorySession,
+            final List<MavenProject> reactorProjects, final int threads, final ExtensionMetrics metrics) {
+        this.repositorySystem = repositorySystem;
+        this.repositorySession = repositorySession;
+        this.metrics = metrics;
+        for (final MavenProject project : reactorProjects) {
+            this.reactorProjects.put(project.getGroupId() + ':' + project.getArtifactId() + ':' + project.getVersion(), project);
+        }
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "dependency-duplicator-collector-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(contextClassLoader);
+            return thread;
+        });
+    }
+
+    /**
+     * Collects the dependencies the given project receives transitively through its declared dependencies. May be called
+     * concurrently.
+     *
+     * @param project project
+     * @return transitive dependencies, nearest first, without the declared dependencies of the project
+     */
+    public List<Dependency> collect(final MavenProject project) {
+        final List<RemoteRepository> repositories = project.getRemoteProjectRepositories();
+        final Set<String> seen = new HashSet<>();
+        List<Path> level = new ArrayList<>();
+        for (final Dependency dependency : project.getDependencies()) {
+            if (seen.add(dependency.getManagementKey()) && !"system".equals(dependency.getScope())) {
+                level.add(new Path(dependency, dependency.getScope(), exclusionsOf(dependency, Collections.emptySet())));
+            }
+        }
+
+        final List<Dependency> result = new ArrayList<>();
+        while (!level.isEmpty()) {
+            final List<CompletableFuture<List<Dependency>>> children = new ArrayList<>(level.size());
+            for (final Path path : level) {
+                children.add(directDependencies(path.dependency, repositories));
+            }
+            final List<Path> nextLevel = new ArrayList<>();
+            for (int i = 0; i < level.size(); i++) {
+                final Path parent = level.get(i);
+                for (final Dependency child : children.get(i).join()) {
+                    final String scope = transitiveScope(parent.scope, child.getScope());
+                    if (scope == null || child.isOptional() || isExcluded(child, parent.exclusions) || !seen.add(child.getManagementKey())) {
+                        continue;
+                    }
+                    final Dependency transitive = child.clone();
+                    transitive.setScope(scope);
+                    transitive.setExclusions(new ArrayList<>());
+                    result.add(transitive);
+                    nextLevel.add(new Path(child, scope, exclusionsOf(child, parent.exclusions)));
+                }
+            }
+            level = nextLevel;
+        }
+        return result;
+    }
+
+    private CompletableFuture<List<Dependency>> directDependencies(final Dependency dependency, final List<RemoteRepository> repositories) {
+        final String key = dependency.getGroupId() + ':' + dependency.getArtifactId() + ':' + dependency.getVersion();
+        return directDependencies.computeIfAbsent(key, k -> {
+            final MavenProject reactorProject = reactorProjects.get(k);
+            if (reactorProject != null) {
+                return CompletableFuture.completedFuture(reactorProject.getDependencies());
+            }
+            if (dependency.getVersion() == null || dependency.getVersion().isEmpty()) {
+                return CompletableFuture.completedFuture(Collections.emptyList());
+            }
+            return CompletableFuture.supplyAsync(() -> readDirectDependencies(dependency, repositories), executor);
+        });
+    }
+
+    private List<Dependency> readDirectDependencies(final Dependency dependency, final List<RemoteRepository> repositories) {
+        try {
+            final Artifact artifact = resolveVersion(
+                    new DefaultArtifact(dependency.getGroupId(), dependency.getArtifactId(), "pom", dependency.getVersion()), repositories);
+            final ArtifactDescriptorResult descriptor = repositorySystem.readArtifactDescriptor(repositorySession,
+                    new ArtifactDescriptorRequest(artifact, repositories, REQUEST_CONTEXT));
+            metrics.increment(Counter.ARTIFACT_DESCRIPTORS_READ);
+            final List<Dependency> result = new ArrayList<>(descriptor.getDependencies().size());
+            for (final org.eclipse.aether.graph.Dependency child : descriptor.getDependencies()) {
+                result.add(toDependency(child));
+            }
+            return result;
+        } catch (ArtifactDescriptorException | VersionRangeResolutionException e) {
+            LOG.warn("unable to read dependencies of {}, its transitive dependencies are not matched: {}", dependency.getManagementKey(),
+                    e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private Artifact resolveVersion(final Artifact artifact, final List<RemoteRepository> repositories) throws VersionRangeResolutionException {
+        final String version = artifact.getVersion();
+        if (!version.startsWith("[") && !version.startsWith("(")) {
+            return artifact;
+        }
+        final VersionRangeResult range = repositorySystem.resolveVersionRange(repositorySession,
+                new VersionRangeRequest(artifact, repositories, REQUEST_CONTEXT));
+        if (range.getHighestVersion() == null) {
+            throw new VersionRangeResolutionException(range, "no version found in range " + version);
+        }
+        return artifact.setVersion(range.getHighestVersion().toString());
+    }
+
+    private static Dependency toDependency(final org.eclipse.aether.graph.Dependency dependency) {
+        final Artifact artifact = dependency.getArtifact();
+        final Dependency result = new Dependency();
+        result.setGroupId(artifact.getGroupId());
+        result.setArtifactId(artifact.getArtifactId());
+        result.setVersion(artifact.getBaseVersion());
+        result.setType(artifact.getProperty("type", artifact.getExtension()));
+        if (!artifact.getClassifier().isEmpty()) {
+            result.setClassifier(artifact.getClassifier());
+        }
+        result.setScope(dependency.getScope().isEmpty() ? null : dependency.getScope());
+        result.setOptional(Boolean.TRUE.equals(dependency.getOptional()));
+        for (final org.eclipse.aether.graph.Exclusion exclusion : dependency.getExclusions()) {
+            final Exclusion modelExclusion = new Exclusion();
+            modelExclusion.setGroupId(exclusion.getGroupId());
+            modelExclusion.setArtifactId(exclusion.getArtifactId());
+            result.addExclusion(modelExclusion);
+        }
+        return result;
+    }
+
+    /**
+     * Determines the scope of a dependency of a dependency, see
+     * https://maven.apache.org/guides/introduction/introduction-to-dependency-mechanism.html#dependency-scope .
+     *
+     * @return scope, {@code null} if the dependency is not transitive
+     */
+    static String transitiveScope(final String parentScope, final String scope) {
+        final String effectiveParentScope = parentScope == null || parentScope.isEmpty() ? "compile" : parentScope;
+        if (scope == null || scope.isEmpty() || "compile".equals(scope)) {
+            return effectiveParentScope;
+        }
+        if ("runtime".equals(scope)) {
+            return "compile".equals(effectiveParentScope) ? "runtime" : effectiveParentScope;
+        }
+        return null;
+    }
+
+    private static Set<String> exclusionsOf(final Dependency dependency, final Set<String> inherited) {
+        if (dependency.getExclusions().isEmpty()) {
+            return inherited;
+        }
+        final Set<String> result = new HashSet<>(inherited);
+        for (final Exclusion exclusion : dependency.getExclusions()) {
+            result.add(exclusion.getGroupId() + ':' + exclusion.getArtifactId());
+        }
+        return result;
+    }
+
+    private static boolean isExcluded(final Dependency dependency, final Set<String> exclusions) {
+        return !exclusions.isEmpty()
+                && (exclusions.contains("*:*")
+                        || exclusions.contains(dependency.getGroupId() + ":*")
+                        || exclusions.contains("*:" + dependency.getArtifactId())
+                        || exclusions.contains(dependency.getGroupId() + ':' + dependency.getArtifactId()));
+    }
+
+    /**
+     * @return number of artifacts whose direct dependencies are known
+     */
+    int getArtifactCount() {
+        return directDependencies.size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A dependency reached on a path from the project, with the scope and exclusions of that path.
+     */
+    private static final class Path {
+        final Dependency dependency;
+        final String scope;
+        final Set<String> exclusions;
+
+        Path(final Dependency dependency, final String scope, final Set<String> exclusions) {
+            this.dependency = dependency;
+            this.scope = scope;
+            this.exclusions = exclusions;
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.github.mickroll.maven.dependency_duplicator_plugin.config;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.StringJoiner;
 
 import org.apache.maven.model.Dependency;
 import org.apache.maven.plugins.annotations.Parameter;
 
+import com.github.mickroll.maven.dependency_duplicator_plugin.DependencyKey;
+import com.github.mickroll.maven.dependency_duplicator_plugin.PlannedDependency;
+
 /**
  * Defines a set of rules for dependency duplication.
  *
@@ -17,9 +22,16 @@ public class DependencyDuplication {
     /**
      * Defines a list of regular expressions in the form {@code groupId:artifactId:type[:classifier]} that is used to match against existing dependencies.
      */
-    @Parameter(required = true)
+    @Parameter
     List<String> dependencyKeys;
 
+    /**
+     * Defines a list of patterns in the form {@code groupId[:artifactId[:type[:classifier]]]} with wildcards {@code *} and {@code ?}
+     * that is used to match against existing dependencies, see {@link DependencyGlob}.
+     */
+    @Parameter
+    List<String> dependencyPatterns;
+
     /**
      * New scope for duplicated dependency.
      * <p>
@@ -50,6 +62,12 @@ public class DependencyDuplication {
     @Parameter(defaultValue = "true")
     boolean addDownstream;
 
+    /**
+     * Set to <code>true</code>, if also the transitive dependencies of a project should be matched, not only its declared ones.
+     */
+    @Parameter(defaultValue = "false")
+    boolean matchTransitive;
+
     /**
      * Dependencies to add, if {@link #dependencyKeys} did match in a project.
      */
@@ -57,16 +75,87 @@ public class DependencyDuplication {
     List<Dependency> additionalDependencies;
 
     /**
-     * Determines, if given dependency is matched by the configured {@link #dependencyKeys} regExes.
+     * Compiled {@link #dependencyKeys}, created on first use (after the configuration has been injected).
+     */
+    private volatile List<DependencyKeyMatcher> keyMatchers;
+
+    /**
+     * Parsed {@link #dependencyPatterns}, created on first use.
+     */
+    private volatile List<DependencyGlob> patterns;
+
+    /**
+     * {@link #additionalDependencies} with their keys, created on first use.
+     */
+    private volatile List<PlannedDependency> plannedAdditionalDependencies;
+
+    /**
+     * Determines, if given dependency is matched by the configured {@link #dependencyKeys} regExes or {@link #dependencyPatterns}.
      *
      * @param dependency dependency
-     * @return {@code true}, if management key of dependency is matched by dependencyPattern regEx
+     * @return {@code true}, if management key of dependency is matched by a dependencyKey regEx or a dependencyPattern
      * @see Dependency#getManagementKey()
      * @see String#matches(String)
      */
     public boolean matches(final Dependency dependency) {
-        return getDependencyKeys().stream()
-                .anyMatch(pattern -> dependency.getManagementKey().matches(pattern));
+        final String managementKey = dependency.getManagementKey();
+        if (matchesDependencyKeys(managementKey)) {
+            return true;
+        }
+        for (final DependencyGlob pattern : getPatterns()) {
+            if (pattern.matches(managementKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param managementKey management key of a dependency
+     * @return {@code true}, if the key is matched by one of the {@link #dependencyKeys} regExes
+     */
+    boolean matchesDependencyKeys(final String managementKey) {
+        for (final DependencyKeyMatcher keyMatcher : getKeyMatchers()) {
+            if (keyMatcher.matches(managementKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return matchers of all {@link #dependencyKeys} and {@link #dependencyPatterns}, in this order
+     */
+    List<KeyMatcher> getAllMatchers() {
+        final List<KeyMatcher> result = new ArrayList<>(getKeyMatchers());
+        result.addAll(getPatterns());
+        return result;
+    }
+
+    List<DependencyGlob> getPatterns() {
+        List<DependencyGlob> result = patterns;
+        if (result == null) {
+            result = new ArrayList<>();
+            for (final String dependencyPattern : getDependencyPatterns()) {
+                result.add(new DependencyGlob(dependencyPattern));
+            }
+            result = Collections.unmodifiableList(result);
+            patterns = result;
+        }
+        return result;
+    }
+
+    List<DependencyKeyMatcher> getKeyMatchers() {
+        List<DependencyKeyMatcher> result = keyMatchers;
+        if (result == null) {
+            result = new ArrayList<>();
+            for (final String dependencyKey : getDependencyKeys()) {
+                result.add(new DependencyKeyMatcher(dependencyKey));
+            }
+            result = Collections.unmodifiableList(result);
+            keyMatchers = result;
+        }
+        return result;
     }
 
     public Dependency doDuplicate(final Dependency source) {
@@ -78,12 +167,58 @@ public class DependencyDuplication {
         return clone;
     }
 
+    /**
+     * Describes the result of {@link #doDuplicate(Dependency)} without creating it.
+     *
+     * @param source dependency to duplicate
+     * @return planned duplicate, that does not refer to {@code source}
+     */
+    public PlannedDependency planDuplicate(final Dependency source) {
+        return PlannedDependency.of(DependencyKey.of(source).with(targetClassifier, targetScope, targetType));
+    }
+
+    /**
+     * @return {@link #getAdditionalDependencies()} as planned dependencies
+     */
+    public List<PlannedDependency> planAdditionalDependencies() {
+        List<PlannedDependency> result = plannedAdditionalDependencies;
+        if (result == null) {
+            result = new ArrayList<>();
+            for (final Dependency dependency : getAdditionalDependencies()) {
+                result.add(PlannedDependency.of(dependency));
+            }
+            result = Collections.unmodifiableList(result);
+            plannedAdditionalDependencies = result;
+        }
+        return result;
+    }
+
     public List<String> getDependencyKeys() {
-        return dependencyKeys == null ? Collections.emptyList() : dependencyKeys;
+        return dependencyKeys == null ? Collections.emptyList() : Collections.unmodifiableList(dependencyKeys);
+    }
+
+    public List<String> getDependencyPatterns() {
+        return dependencyPatterns == null ? Collections.emptyList() : Collections.unmodifiableList(dependencyPatterns);
+    }
+
+    /**
+     * @return {@code true}, if at least one of {@link #dependencyKeys} or {@link #dependencyPatterns} is configured
+     */
+    public boolean hasDependencyKeysOrPatterns() {
+        return !getDependencyKeys().isEmpty() || !getDependencyPatterns().isEmpty();
+    }
+
+    /**
+     * @return all {@link #dependencyKeys} and {@link #dependencyPatterns}, describes the rule in logs
+     */
+    public List<String> getDependencyKeysAndPatterns() {
+        final List<String> result = new ArrayList<>(getDependencyKeys());
+        result.addAll(getDependencyPatterns());
+        return result;
     }
 
     public List<Dependency> getAdditionalDependencies() {
-        return additionalDependencies == null ? Collections.emptyList() : additionalDependencies;
+        return additionalDependencies == null ? Collections.emptyList() : Collections.unmodifiableList(additionalDependencies);
     }
 
     public Optional<String> getTargetScope() {
@@ -102,14 +237,32 @@ public class DependencyDuplication {
         return addDownstream;
     }
 
+    public boolean isMatchTransitive() {
+        return matchTransitive;
+    }
+
     @Override
     public String toString() {
-        return "{"
-                + (dependencyKeys != null ? "dependencyPatterns=" + dependencyKeys : "")
-                + (targetScope != null ? ", targetScope=" + targetScope : "")
-                + (targetType != null ? ", targetType=" + targetType : "")
-                + (targetClassifier != null ? ", targetClassifier=" + targetClassifier : "")
-                + ", addDownstream=" + addDownstream
-                + "}";
+        final StringJoiner result = new StringJoiner(", ", "{", "}");
+        if (dependencyKeys != null) {
+            result.add("dependencyKeys=" + dependencyKeys);
+        }
+        if (dependencyPatterns != null) {
+            result.add("dependencyPatterns=" + dependencyPatterns);
+        }
+        if (targetScope != null) {
+            result.add("targetScope=" + targetScope);
+        }
+        if (targetType != null) {
+            result.add("targetType=" + targetType);
+        }
+        if (targetClassifier != null) {
+            result.add("targetClassifier=" + targetClassifier);
+        }
+        result.add("addDownstream=" + addDownstream);
+        if (matchTransitive) {
+            result.add("matchTransitive=true");
+        }
+        return result.toString();
     }
 }
\ No newline at end of file
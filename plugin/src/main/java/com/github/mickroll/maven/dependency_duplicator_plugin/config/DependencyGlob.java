@@ -0,0 +1,136 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin.config;
+
+import java.util.Arrays;
+
+/**
+ * Parsed form of a single {@code dependencyPattern} in the form {@code groupId[:artifactId[:type[:classifier]]]}.
+ * <p>
+ * Each part may contain the wildcards {@code *} (any number of characters) and {@code ?} (one character), omitted or empty parts
+ * match anything. Within the groupId, wildcards do not match a {@code .}, but a last segment consisting of {@code *} only matches
+ * one or more segments: {@code com.acme.*} matches {@code com.acme.foo} and {@code com.acme.foo.bar}, but not {@code com.acme}.
+ * <p>
+ * Must not be named after the configuration element: the configurator would try to instantiate a class of this package named
+ * {@code DependencyPattern} for each {@code <dependencyPattern>}.
+ *
+ * @author mickroll
+ * @see DependencyDuplication#dependencyPatterns
+ * @see DependencyPatternTrie
+ */
+final class DependencyGlob implements KeyMatcher {
+
+    private static final String ANY = "*";
+
+    private final String pattern;
+    private final String[] groupSegments;
+    private final boolean anyGroupSuffix;
+    private final String artifactId;
+    private final String type;
+    private final String classifier;
+
+    DependencyGlob(final String pattern) {
+        this.pattern = pattern.trim();
+        final String[] parts = this.pattern.split(":", -1);
+        if (this.pattern.isEmpty() || parts.length > 4) {
+            throw new IllegalArgumentException("invalid dependencyPattern '" + pattern + "', expected groupId[:artifactId[:type[:classifier]]]");
+        }
+        final String groupId = part(parts, 0);
+        final String[] segments = groupId.split("\\.", -1);
+        this.anyGroupSuffix = ANY.equals(segments[segments.length - 1]);
+        this.groupSegments = anyGroupSuffix ? Arrays.copyOf(segments, segments.length - 1) : segments;
+        this.artifactId = part(parts, 1);
+        this.type = part(parts, 2);
+        this.classifier = part(parts, 3);
+    }
+
+    private static String part(final String[] parts, final int index) {
+        return index < parts.length && !parts[index].isEmpty() ? parts[index] : ANY;
+    }
+
+    @Override
+    public boolean matches(final String managementKey) {
+        final String[] parts = managementKey.split(":", -1);
+        if (parts.length < 3) {
+            return false;
+        }
+        final String[] segments = parts[0].split("\\.", -1);
+        if (anyGroupSuffix ? segments.length <= groupSegments.length : segments.length != groupSegments.length) {
+            return false;
+        }
+        for (int i = 0; i < groupSegments.length; i++) {
+            if (!globMatches(groupSegments[i], segments[i])) {
+                return false;
+            }
+        }
+        return matchesArtifact(parts[1], parts[2], parts.length > 3 ? parts[3] : null);
+    }
+
+    /**
+     * Matches the parts of the management key after the groupId.
+     *
+     * @param actualArtifactId artifactId of the dependency
+     * @param actualType type of the dependency
+     * @param actualClassifier classifier of the dependency, may be {@code null}
+     * @return {@code true}, if all parts are matched
+     */
+    boolean matchesArtifact(final String actualArtifactId, final String actualType, final String actualClassifier) {
+        return globMatches(artifactId, actualArtifactId)
+                && globMatches(type, actualType)
+                && (actualClassifier != null ? globMatches(classifier, actualClassifier) : ANY.equals(classifier));
+    }
+
+    /**
+     * @return segments of the groupId, without a trailing {@code *} segment
+     */
+    String[] getGroupSegments() {
+        return groupSegments;
+    }
+
+    /**
+     * @return {@code true}, if the groupId ends with a {@code *} segment, that matches one or more segments
+     */
+    boolean isAnyGroupSuffix() {
+        return anyGroupSuffix;
+    }
+
+    String getArtifactId() {
+        return artifactId;
+    }
+
+    static boolean isLiteral(final String glob) {
+        return glob.indexOf('*') < 0 && glob.indexOf('?') < 0;
+    }
+
+    /**
+     * Matches {@code text} against {@code glob}, supporting {@code *} and {@code ?}.
+     */
+    static boolean globMatches(final String glob, final String text) {
+        int g = 0;
+        int t = 0;
+        int starGlob = -1;
+        int starText = 0;
+        while (t < text.length()) {
+            if (g < glob.length() && (glob.charAt(g) == '?' || glob.charAt(g) == text.charAt(t))) {
+                g++;
+                t++;
+            } else if (g < glob.length() && glob.charAt(g) == '*') {
+                starGlob = g++;
+                starText = t;
+            } else if (starGlob >= 0) {
+                // let the last '*' consume one more character
+                g = starGlob + 1;
+                t = ++starText;
+            } else {
+                return false;
+            }
+        }
+        while (g < glob.length() && glob.charAt(g) == '*') {
+            g++;
+        }
+        return g == glob.length();
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin.config;
+
+import java.util.regex.Pattern;
+
+/**
+ * Precompiled form of a single {@code dependencyKey} regular expression.
+ * <p>
+ * Management keys that do not start with the literal prefix of the expression are rejected without running the regular expression.
+ *
+ * @author mickroll
+ * @see DependencyDuplication#dependencyKeys
+ */
+final class DependencyKeyMatcher implements KeyMatcher {
+
+    private static final String META_CHARACTERS = "\\.[]{}()*+?^$|";
+    private static final String QUANTIFIERS = "?*+{";
+
+    private final String literalPrefix;
+    private final Pattern pattern;
+
+    DependencyKeyMatcher(final String regEx) {
+        this.literalPrefix = literalPrefix(regEx);
+        this.pattern = Pattern.compile(regEx);
+    }
+
+    /**
+     * Determines, if the given management key is matched by the regular expression.
+     *
+     * @param managementKey management key of a dependency
+     * @return same result as {@code managementKey.matches(regEx)}
+     * @see String#matches(String)
+     */
+    @Override
+    public boolean matches(final String managementKey) {
+        return managementKey.startsWith(literalPrefix) && pattern.matcher(managementKey).matches();
+    }
+
+    String getLiteralPrefix() {
+        return literalPrefix;
+    }
+
+    /**
+     * Extracts the characters every string matched by the given regular expression has to start with.
+     * <p>
+     * Stops at the first construct that is not a plain (or escaped) literal character, so the result is possibly shorter than
+     * necessary, but never too long.
+     *
+     * @param regEx regular expression
+     * @return literal prefix, may be empty
+     */
+    static String literalPrefix(final String regEx) {
+        if (regEx.indexOf('|') >= 0) {
+            // alternation may start anywhere, e.g. "a|b"
+            return "";
+        }
+        final StringBuilder prefix = new StringBuilder();
+        int i = 0;
+        while (i < regEx.length()) {
+            final char c = regEx.charAt(i);
+            final char literal;
+            final int next;
+            if (c == '\\') {
+                if (i + 1 >= regEx.length() || Character.isLetterOrDigit(regEx.charAt(i + 1))) {
+                    // character classes like \d, back references, \Q...\E quoting
+                    break;
+                }
+                literal = regEx.charAt(i + 1);
+                next = i + 2;
+            } else if (META_CHARACTERS.indexOf(c) >= 0) {
+                break;
+            } else {
+                literal = c;
+                next = i + 1;
+            }
+            if (next < regEx.length() && QUANTIFIERS.indexOf(regEx.charAt(next)) >= 0) {
+                // quantified literal may be absent or repeated
+                break;
+            }
+            prefix.append(literal);
+            i = next;
+        }
+        return prefix.toString();
+    }
+
+    @Override
+    public String toString() {
+        return pattern.pattern();
+    }
+}
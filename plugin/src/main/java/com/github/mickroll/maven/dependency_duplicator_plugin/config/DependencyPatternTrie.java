@@ -0,0 +1,155 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All {@link DependencyGlob}s of a list of rules, indexed by the segments of their groupId and by their artifactId.
+ * <p>
+ * Literal segments are looked up by hash, so finding the first matching rule depends on the length of the management key and the
+ * number of patterns using wildcards at the same position, but not on the total number of rules.
+ *
+ * @author mickroll
+ */
+final class DependencyPatternTrie {
+
+    /**
+     * Result of {@link #findFirstRule(String)}, if no pattern matches.
+     */
+    static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final Node root = new Node();
+
+    /**
+     * @param rules rules, the index of a rule in this list is its priority
+     */
+    DependencyPatternTrie(final List<DependencyDuplication> rules) {
+        for (int rule = 0; rule < rules.size(); rule++) {
+            for (final DependencyGlob pattern : rules.get(rule).getPatterns()) {
+                add(rule, pattern);
+            }
+        }
+    }
+
+    private void add(final int rule, final DependencyGlob pattern) {
+        Node node = root;
+        for (final String segment : pattern.getGroupSegments()) {
+            node = DependencyGlob.isLiteral(segment)
+                    ? node.children.computeIfAbsent(segment, s -> new Node())
+                    : node.globChild(segment);
+        }
+        (pattern.isAnyGroupSuffix() ? node.suffixEntries : node.entries).add(rule, pattern);
+    }
+
+    /**
+     * @param managementKey management key of a dependency, {@code groupId:artifactId:type[:classifier]}
+     * @return index of the first rule with a matching pattern, {@link #NO_MATCH} if there is none
+     */
+    int findFirstRule(final String managementKey) {
+        final int artifactStart = managementKey.indexOf(':') + 1;
+        final int typeStart = managementKey.indexOf(':', artifactStart) + 1;
+        if (artifactStart == 0 || typeStart == 0) {
+            return NO_MATCH;
+        }
+        final int classifierStart = managementKey.indexOf(':', typeStart) + 1;
+        final String groupId = managementKey.substring(0, artifactStart - 1);
+        final String artifactId = managementKey.substring(artifactStart, typeStart - 1);
+        final String type = classifierStart > 0 ? managementKey.substring(typeStart, classifierStart - 1) : managementKey.substring(typeStart);
+        final String classifier = classifierStart > 0 ? managementKey.substring(classifierStart) : null;
+        return find(root, groupId.split("\\.", -1), 0, artifactId, type, classifier, NO_MATCH);
+    }
+
+    private static int find(final Node node, final String[] segments, final int segment, final String artifactId, final String type,
+            final String classifier, final int best) {
+        int result = best;
+        if (segment == segments.length) {
+            return node.entries.findFirstRule(artifactId, type, classifier, result);
+        }
+        // a trailing '*' matches all remaining segments
+        result = node.suffixEntries.findFirstRule(artifactId, type, classifier, result);
+        final Node literalChild = node.children.get(segments[segment]);
+        if (literalChild != null) {
+            result = find(literalChild, segments, segment + 1, artifactId, type, classifier, result);
+        }
+        for (int i = 0; i < node.globSegments.size(); i++) {
+            if (DependencyGlob.globMatches(node.globSegments.get(i), segments[segment])) {
+                result = find(node.globChildren.get(i), segments, segment + 1, artifactId, type, classifier, result);
+            }
+        }
+        return result;
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        final List<String> globSegments = new ArrayList<>();
+        final List<Node> globChildren = new ArrayList<>();
+        /**
+         * Patterns whose groupId ends at this node.
+         */
+        final Entries entries = new Entries();
+        /**
+         * Patterns whose groupId ends with a {@code *} segment after this node.
+         */
+        final Entries suffixEntries = new Entries();
+
+        Node globChild(final String segment) {
+            final int index = globSegments.indexOf(segment);
+            if (index >= 0) {
+                return globChildren.get(index);
+            }
+            final Node child = new Node();
+            globSegments.add(segment);
+            globChildren.add(child);
+            return child;
+        }
+    }
+
+    /**
+     * Patterns with the same groupId, indexed by literal artifactId. Each list is ordered by rule.
+     */
+    private static final class Entries {
+        final Map<String, List<Entry>> byArtifactId = new HashMap<>();
+        final List<Entry> other = new ArrayList<>();
+
+        void add(final int rule, final DependencyGlob pattern) {
+            final Entry entry = new Entry(rule, pattern);
+            if (DependencyGlob.isLiteral(pattern.getArtifactId())) {
+                byArtifactId.computeIfAbsent(pattern.getArtifactId(), a -> new ArrayList<>()).add(entry);
+            } else {
+                other.add(entry);
+            }
+        }
+
+        int findFirstRule(final String artifactId, final String type, final String classifier, final int best) {
+            final int result = findFirstRule(byArtifactId.get(artifactId), artifactId, type, classifier, best);
+            return findFirstRule(other, artifactId, type, classifier, result);
+        }
+
+        private static int findFirstRule(final List<Entry> candidates, final String artifactId, final String type, final String classifier,
+                final int best) {
+            if (candidates != null) {
+                for (final Entry entry : candidates) {
+                    if (entry.rule >= best) {
+                        break;
+                    }
+                    if (entry.pattern.matchesArtifact(artifactId, type, classifier)) {
+                        return entry.rule;
+                    }
+                }
+            }
+            return best;
+        }
+    }
+
+    private static final class Entry {
+        final int rule;
+        final DependencyGlob pattern;
+
+        Entry(final int rule, final DependencyGlob pattern) {
+            this.rule = rule;
+            this.pattern = pattern;
+        }
+    }
+}
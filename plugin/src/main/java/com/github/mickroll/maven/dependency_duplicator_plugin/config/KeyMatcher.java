@@ -0,0 +1,15 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin.config;
+
+/**
+ * Matches the management key of a dependency, see {@link org.apache.maven.model.Dependency#getManagementKey()}.
+ *
+ * @author mickroll
+ */
+interface KeyMatcher {
+
+    /**
+     * @param managementKey management key of a dependency, {@code groupId:artifactId:type[:classifier]}
+     * @return {@code true}, if the key is matched
+     */
+    boolean matches(String managementKey);
+}
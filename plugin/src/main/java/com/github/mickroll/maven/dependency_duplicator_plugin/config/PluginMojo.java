@@ -3,6 +3,7 @@ package com.github.mickroll.maven.dependency_duplicator_plugin.config;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.AbstractMojo;
@@ -10,6 +11,7 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.codehaus.plexus.component.configurator.ComponentConfigurationException;
 
 @Mojo(name = PluginMojo.GOAL)
 public class PluginMojo extends AbstractMojo {
@@ -26,27 +28,136 @@ public class PluginMojo extends AbstractMojo {
     @Parameter
     List<DependencyDuplication> duplications;
 
+    /**
+     * Set to <code>true</code>, to replace the {@code dependenciesToScan} of the surefire configuration of each project with
+     * exactly the test artifacts added to the project. Projects that received no test artifacts do not scan any dependency.
+     */
+    @Parameter(defaultValue = "false")
+    boolean configureDependenciesToScan;
+
+    /**
+     * Test class includes, that replace the {@code includes} of the surefire configuration of each project that received test
+     * artifacts, if {@link #configureDependenciesToScan} is set. Note that they apply to the tests of the project, too.
+     */
+    @Parameter
+    List<String> dependenciesToScanIncludes;
+
+    private volatile RuleStatistics ruleStatistics;
+
+    /**
+     * Compiled {@link DependencyDuplication#dependencyPatterns} of all duplications, created on first use.
+     */
+    private volatile DependencyPatternTrie patternTrie;
+
+    /**
+     * Indices of the duplications with {@link DependencyDuplication#dependencyKeys} regExes, created on first use.
+     */
+    private volatile int[] rulesWithDependencyKeys;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         throw new MojoExecutionException("This mojo should not be executed. It may only be used for configuration.");
     }
 
     public List<DependencyDuplication> getDuplications() {
-        return duplications == null ? Collections.emptyList() : duplications;
+        return duplications == null ? Collections.emptyList() : Collections.unmodifiableList(duplications);
+    }
+
+    public boolean isConfigureDependenciesToScan() {
+        return configureDependenciesToScan;
+    }
+
+    public List<String> getDependenciesToScanIncludes() {
+        return dependenciesToScanIncludes == null ? Collections.emptyList() : Collections.unmodifiableList(dependenciesToScanIncludes);
     }
 
     public boolean hasDefinedDuplications() {
         return !getDuplications().isEmpty();
     }
 
+    /**
+     * Checks the configuration, that the configurator cannot check itself.
+     *
+     * @throws ComponentConfigurationException if a duplication has neither {@link DependencyDuplication#dependencyKeys} nor
+     *             {@link DependencyDuplication#dependencyPatterns}
+     */
+    public void validate() throws ComponentConfigurationException {
+        for (int i = 0; i < getDuplications().size(); i++) {
+            final DependencyDuplication duplication = getDuplications().get(i);
+            if (!duplication.hasDependencyKeysOrPatterns()) {
+                throw new ComponentConfigurationException(
+                        "duplication #" + (i + 1) + " needs at least one dependencyKey or dependencyPattern: " + duplication);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true}, if any duplication matches transitive dependencies
+     */
+    public boolean hasTransitiveDuplications() {
+        for (final DependencyDuplication duplication : getDuplications()) {
+            if (duplication.isMatchTransitive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Finds the first (top to bottom) DependencyDuplication that matches the given dependency.
+     * <p>
+     * The patterns of all duplications are looked up at once, regExes are only evaluated for the duplications before the first
+     * duplication with a matching pattern.
      *
      * @param dependency dependency
      * @return first found duplication, if any
      */
     public Optional<DependencyDuplication> findFirstDuplicationConfig(final Dependency dependency) {
-        return getDuplications().stream().filter(matcher -> matcher.matches(dependency)).findFirst();
+        final RuleStatistics statistics = ruleStatistics;
+        if (statistics != null) {
+            return statistics.findFirstDuplicationConfig(dependency);
+        }
+        if (patternTrie == null) {
+            compile();
+        }
+        final String managementKey = dependency.getManagementKey();
+        final int firstPatternMatch = patternTrie.findFirstRule(managementKey);
+        for (final int rule : rulesWithDependencyKeys) {
+            if (rule >= firstPatternMatch) {
+                break;
+            }
+            if (getDuplications().get(rule).matchesDependencyKeys(managementKey)) {
+                return Optional.of(getDuplications().get(rule));
+            }
+        }
+        return firstPatternMatch != DependencyPatternTrie.NO_MATCH ? Optional.of(getDuplications().get(firstPatternMatch)) : Optional.empty();
+    }
+
+    private synchronized void compile() {
+        if (patternTrie != null) {
+            return;
+        }
+        final List<DependencyDuplication> rules = getDuplications();
+        rulesWithDependencyKeys = IntStream.range(0, rules.size())
+                .filter(rule -> !rules.get(rule).getDependencyKeys().isEmpty())
+                .toArray();
+        patternTrie = new DependencyPatternTrie(rules);
+    }
+
+    /**
+     * Starts recording statistics for all subsequent calls of {@link #findFirstDuplicationConfig(Dependency)}.
+     *
+     * @return recorded statistics
+     */
+    public synchronized RuleStatistics recordRuleStatistics() {
+        if (ruleStatistics == null) {
+            ruleStatistics = new RuleStatistics(getDuplications());
+        }
+        return ruleStatistics;
+    }
+
+    public Optional<RuleStatistics> getRuleStatistics() {
+        return Optional.ofNullable(ruleStatistics);
     }
 
     @Override
@@ -0,0 +1,297 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin.config;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.maven.model.Dependency;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionSettings;
+
+/**
+ * Records how often each rule and each pattern of a {@link PluginMojo} is evaluated and matched.
+ * <p>
+ * While recording, every pattern is evaluated against every dependency, so that overlapping rules can be detected. Evaluations,
+ * matches and time are nevertheless counted as if only the first matching rule was searched (see
+ * {@link PluginMojo#findFirstDuplicationConfig(Dependency)}), the result is the same as without recording.
+ *
+ * @author mickroll
+ */
+public class RuleStatistics {
+
+    /**
+     * Records and logs statistics of all rules.
+     */
+    public static final String ENABLED = ExtensionSettings.PREFIX + "ruleStatistics";
+
+    private final List<DependencyDuplication> rules;
+    private final int[] firstPatternOfRule;
+    private final int[] ruleOfPattern;
+    private final List<KeyMatcher> patterns = new ArrayList<>();
+
+    private final LongAdder[] evaluations;
+    private final LongAdder[] matches;
+    private final LongAdder[] wouldMatch;
+    private final LongAdder[] nanos;
+    private final LongAdder unmatched = new LongAdder();
+    /**
+     * Number of dependencies per set of matching patterns.
+     */
+    private final Map<BitSet, LongAdder> matchingPatterns = new ConcurrentHashMap<>();
+
+    RuleStatistics(final List<DependencyDuplication> rules) {
+        this.rules = rules;
+        this.firstPatternOfRule = new int[rules.size() + 1];
+        final List<Integer> rulesOfPatterns = new ArrayList<>();
+        for (int rule = 0; rule < rules.size(); rule++) {
+            firstPatternOfRule[rule] = patterns.size();
+            for (final KeyMatcher pattern : rules.get(rule).getAllMatchers()) {
+                patterns.add(pattern);
+                rulesOfPatterns.add(rule);
+            }
+        }
+        firstPatternOfRule[rules.size()] = patterns.size();
+        this.ruleOfPattern = rulesOfPatterns.stream().mapToInt(Integer::intValue).toArray();
+        this.evaluations = newAdders(patterns.size());
+        this.matches = newAdders(patterns.size());
+        this.wouldMatch = newAdders(patterns.size());
+        this.nanos = newAdders(patterns.size());
+    }
+
+    private static LongAdder[] newAdders(final int size) {
+        final LongAdder[] result = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = new LongAdder();
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link PluginMojo#findFirstDuplicationConfig(Dependency)}, while recording statistics. May be called concurrently.
+     */
+    Optional<DependencyDuplication> findFirstDuplicationConfig(final Dependency dependency) {
+        final String managementKey = dependency.getManagementKey();
+        final BitSet matched = new BitSet(patterns.size());
+        int firstMatch = -1;
+        for (int pattern = 0; pattern < patterns.size(); pattern++) {
+            final long start = System.nanoTime();
+            final boolean match = patterns.get(pattern).matches(managementKey);
+            final long duration = System.nanoTime() - start;
+            if (firstMatch < 0) {
+                evaluations[pattern].increment();
+                nanos[pattern].add(duration);
+            }
+            if (match) {
+                matched.set(pattern);
+                wouldMatch[pattern].increment();
+                if (firstMatch < 0) {
+                    firstMatch = pattern;
+                    matches[pattern].increment();
+                }
+            }
+        }
+        if (firstMatch < 0) {
+            unmatched.increment();
+            return Optional.empty();
+        }
+        matchingPatterns.computeIfAbsent(matched, key -> new LongAdder()).increment();
+        return Optional.of(rules.get(ruleOfPattern[firstMatch]));
+    }
+
+    public long getEvaluations(final int rule, final int pattern) {
+        return evaluations[firstPatternOfRule[rule] + pattern].sum();
+    }
+
+    public long getMatches(final int rule, final int pattern) {
+        return matches[firstPatternOfRule[rule] + pattern].sum();
+    }
+
+    public long getMatches(final int rule) {
+        long result = 0;
+        for (int pattern = firstPatternOfRule[rule]; pattern < firstPatternOfRule[rule + 1]; pattern++) {
+            result += matches[pattern].sum();
+        }
+        return result;
+    }
+
+    /**
+     * @return rules (by index) that never were the first matching rule
+     */
+    public List<Integer> getDeadRules() {
+        final List<Integer> result = new ArrayList<>();
+        for (int rule = 0; rule < rules.size(); rule++) {
+            if (getMatches(rule) == 0) {
+                result.add(rule);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the other rules that decided dependencies matched by a pattern, that never was the first match itself.
+     *
+     * @return earlier rules (by index), empty if the pattern was the first match at least once, did not match at all or was only
+     *         preceded by patterns of its own rule (see {@link #isRedundantInRule(int, int)})
+     */
+    public TreeSet<Integer> getShadowingRules(final int rule, final int pattern) {
+        final int index = firstPatternOfRule[rule] + pattern;
+        final TreeSet<Integer> result = new TreeSet<>();
+        if (matches[index].sum() > 0) {
+            return result;
+        }
+        for (final BitSet matched : matchingPatterns.keySet()) {
+            if (matched.get(index) && ruleOfPattern[matched.nextSetBit(0)] != rule) {
+                result.add(ruleOfPattern[matched.nextSetBit(0)]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return {@code true}, if a pattern never was the first match itself, because an earlier pattern of the same rule matched
+     *         some of its dependencies
+     */
+    public boolean isRedundantInRule(final int rule, final int pattern) {
+        final int index = firstPatternOfRule[rule] + pattern;
+        if (matches[index].sum() > 0) {
+            return false;
+        }
+        for (final BitSet matched : matchingPatterns.keySet()) {
+            if (matched.get(index) && ruleOfPattern[matched.nextSetBit(0)] == rule) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Orders the rules, so that rules with many matches per pattern come first. A rule is only moved before another rule, if no
+     * recorded dependency was matched by both rules, so the first matching rule of all recorded dependencies stays the same.
+     *
+     * @return rule indexes in suggested order
+     */
+    public List<Integer> getSuggestedOrder() {
+        final List<TreeSet<Integer>> successors = new ArrayList<>();
+        final int[] predecessorCount = new int[rules.size()];
+        for (int rule = 0; rule < rules.size(); rule++) {
+            successors.add(new TreeSet<>());
+        }
+        for (final BitSet matched : matchingPatterns.keySet()) {
+            final int firstRule = ruleOfPattern[matched.nextSetBit(0)];
+            for (int pattern = matched.nextSetBit(0); pattern >= 0; pattern = matched.nextSetBit(pattern + 1)) {
+                final int rule = ruleOfPattern[pattern];
+                if (rule != firstRule && successors.get(firstRule).add(rule)) {
+                    predecessorCount[rule]++;
+                }
+            }
+        }
+        final PriorityQueue<Integer> ready = new PriorityQueue<>(Comparator.<Integer> comparingDouble(this::matchesPerPattern).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        for (int rule = 0; rule < rules.size(); rule++) {
+            if (predecessorCount[rule] == 0) {
+                ready.add(rule);
+            }
+        }
+        final List<Integer> result = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            final int rule = ready.poll();
+            result.add(rule);
+            for (final int successor : successors.get(rule)) {
+                if (--predecessorCount[successor] == 0) {
+                    ready.add(successor);
+                }
+            }
+        }
+        return result;
+    }
+
+    private double matchesPerPattern(final int rule) {
+        final int patternCount = firstPatternOfRule[rule + 1] - firstPatternOfRule[rule];
+        return patternCount == 0 ? 0 : (double) getMatches(rule) / patternCount;
+    }
+
+    /**
+     * Computes the number of pattern evaluations needed for all recorded dependencies, if the rules were in the given order.
+     *
+     * @param ruleOrder rule indexes
+     * @return number of evaluations
+     */
+    public long getEvaluations(final List<Integer> ruleOrder) {
+        long result = unmatched.sum() * patterns.size();
+        for (final Map.Entry<BitSet, LongAdder> entry : matchingPatterns.entrySet()) {
+            long evaluated = 0;
+            search: for (final int rule : ruleOrder) {
+                for (int pattern = firstPatternOfRule[rule]; pattern < firstPatternOfRule[rule + 1]; pattern++) {
+                    evaluated++;
+                    if (entry.getKey().get(pattern)) {
+                        break search;
+                    }
+                }
+            }
+            result += evaluated * entry.getValue().sum();
+        }
+        return result;
+    }
+
+    /**
+     * @return report, one line per entry
+     */
+    public List<String> format() {
+        final List<String> lines = new ArrayList<>();
+        final List<Integer> originalOrder = new ArrayList<>();
+        for (int rule = 0; rule < rules.size(); rule++) {
+            originalOrder.add(rule);
+            long ruleNanos = 0;
+            for (int pattern = firstPatternOfRule[rule]; pattern < firstPatternOfRule[rule + 1]; pattern++) {
+                ruleNanos += nanos[pattern].sum();
+            }
+            final long ruleEvaluations = firstPatternOfRule[rule] < firstPatternOfRule[rule + 1] ? evaluations[firstPatternOfRule[rule]].sum() : 0;
+            lines.add(String.format(Locale.ROOT, "rule #%d %s: evaluated %d, matched %d, %.3fms",
+                    rule + 1, rules.get(rule).getDependencyKeysAndPatterns(), ruleEvaluations, getMatches(rule), ruleNanos / 1_000_000d));
+            for (int pattern = firstPatternOfRule[rule]; pattern < firstPatternOfRule[rule + 1]; pattern++) {
+                lines.add(String.format(Locale.ROOT, "    %s: evaluated %d, matched %d, %.3fms",
+                        patterns.get(pattern), evaluations[pattern].sum(), matches[pattern].sum(), nanos[pattern].sum() / 1_000_000d));
+            }
+        }
+        for (final int rule : getDeadRules()) {
+            lines.add(String.format(Locale.ROOT, "rule #%d never matched", rule + 1));
+        }
+        for (int rule = 0; rule < rules.size(); rule++) {
+            for (int pattern = 0; pattern < firstPatternOfRule[rule + 1] - firstPatternOfRule[rule]; pattern++) {
+                final TreeSet<Integer> shadowingRules = getShadowingRules(rule, pattern);
+                if (!shadowingRules.isEmpty()) {
+                    lines.add(String.format(Locale.ROOT, "pattern %s of rule #%d is shadowed by rule %s",
+                            patterns.get(firstPatternOfRule[rule] + pattern), rule + 1, formatRules(shadowingRules)));
+                }
+                if (isRedundantInRule(rule, pattern)) {
+                    lines.add(String.format(Locale.ROOT, "pattern %s of rule #%d is shadowed by an earlier pattern of the same rule",
+                            patterns.get(firstPatternOfRule[rule] + pattern), rule + 1));
+                }
+            }
+        }
+        final List<Integer> suggestedOrder = getSuggestedOrder();
+        final long evaluationsInOriginalOrder = getEvaluations(originalOrder);
+        final long evaluationsInSuggestedOrder = getEvaluations(suggestedOrder);
+        if (evaluationsInSuggestedOrder < evaluationsInOriginalOrder) {
+            lines.add(String.format(Locale.ROOT, "suggested rule order: %s (%d instead of %d evaluations)",
+                    formatRules(suggestedOrder), evaluationsInSuggestedOrder, evaluationsInOriginalOrder));
+        }
+        return lines;
+    }
+
+    private static String formatRules(final Iterable<Integer> rules) {
+        final StringBuilder result = new StringBuilder();
+        for (final int rule : rules) {
+            result.append(result.length() > 0 ? ", #" : "#").append(rule + 1);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,223 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import org.apache.maven.project.MavenProject;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emits {@link ExtensionEvents} using the JDK Flight Recorder.
+ * <p>
+ * Java 11 variant of the multi-release jar. Events only cost an allocation, if no recording is running.
+ *
+ * @author mickroll
+ */
+final class FlightRecorderEvents extends ExtensionEvents {
+
+    private static final String PREFIX = "com.github.mickroll.dependencyDuplicator.";
+    private static final String CATEGORY = "Dependency Duplicator";
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * @return events using the JDK Flight Recorder, {@code null} if not supported
+     */
+    static ExtensionEvents create() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return new FlightRecorderEvents();
+        } catch (final ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Event configResolution(final MavenProject project) {
+        final ConfigResolutionEvent event = new ConfigResolutionEvent();
+        event.project = project.getId();
+        event.begin();
+        return new Event() {
+            @Override
+            public void setRuleCount(final int ruleCount) {
+                event.found = true;
+                event.ruleCount = ruleCount;
+            }
+
+            @Override
+            public void close() {
+                event.commit();
+            }
+        };
+    }
+
+    @Override
+    public Event matching(final MavenProject project) {
+        final MatchingEvent event = new MatchingEvent();
+        event.project = project.getId();
+        event.begin();
+        return new Event() {
+            @Override
+            public void setRuleCount(final int ruleCount) {
+                event.ruleCount = ruleCount;
+            }
+
+            @Override
+            public void setDependencyCount(final int dependencyCount) {
+                event.dependencyCount = dependencyCount;
+            }
+
+            @Override
+            public void setMatchCount(final int matchCount) {
+                event.matchCount = matchCount;
+            }
+
+            @Override
+            public void close() {
+                event.commit();
+            }
+        };
+    }
+
+    @Override
+    public Event propagation() {
+        final PropagationEvent event = new PropagationEvent();
+        event.begin();
+        return new Event() {
+            @Override
+            public void setProjectCount(final int projectCount) {
+                event.projectCount = projectCount;
+            }
+
+            @Override
+            public void setDependencyCount(final int dependencyCount) {
+                event.dependencyCount = dependencyCount;
+            }
+
+            @Override
+            public void close() {
+                event.commit();
+            }
+        };
+    }
+
+    @Override
+    public Event propagation(final MavenProject project) {
+        final ProjectPropagationEvent event = new ProjectPropagationEvent();
+        event.project = project.getId();
+        event.begin();
+        return new Event() {
+            @Override
+            public void setProjectCount(final int projectCount) {
+                event.sourceCount = projectCount;
+            }
+
+            @Override
+            public void setDependencyCount(final int dependencyCount) {
+                event.dependencyCount = dependencyCount;
+            }
+
+            @Override
+            public void close() {
+                event.commit();
+            }
+        };
+    }
+
+    @Override
+    public Event graphUpdate() {
+        final GraphUpdateEvent event = new GraphUpdateEvent();
+        event.begin();
+        return new Event() {
+            @Override
+            public void setProjectCount(final int projectCount) {
+                event.projectCount = projectCount;
+            }
+
+            @Override
+            public void setEdgeCount(final int edgeCount) {
+                event.edgeCount = edgeCount;
+            }
+
+            @Override
+            public void close() {
+                event.commit();
+            }
+        };
+    }
+
+    @Name(PREFIX + "ConfigResolution")
+    @Label("Config Resolution")
+    @Category(CATEGORY)
+    @Description("Looking up the configuration of a project")
+    static class ConfigResolutionEvent extends jdk.jfr.Event {
+        @Label("Project")
+        String project;
+
+        @Label("Found")
+        boolean found;
+
+        @Label("Rules")
+        int ruleCount;
+    }
+
+    @Name(PREFIX + "Matching")
+    @Label("Matching")
+    @Category(CATEGORY)
+    @Description("Matching the dependencies of a project against the duplication rules")
+    static class MatchingEvent extends jdk.jfr.Event {
+        @Label("Project")
+        String project;
+
+        @Label("Rules")
+        int ruleCount;
+
+        @Label("Dependencies")
+        int dependencyCount;
+
+        @Label("Matches")
+        int matchCount;
+    }
+
+    @Name(PREFIX + "Propagation")
+    @Label("Propagation")
+    @Category(CATEGORY)
+    @Description("Distributing the found dependencies to downstream projects")
+    static class PropagationEvent extends jdk.jfr.Event {
+        @Label("Receiving Projects")
+        int projectCount;
+
+        @Label("Added Dependencies")
+        int dependencyCount;
+    }
+
+    @Name(PREFIX + "ProjectPropagation")
+    @Label("Project Propagation")
+    @Category(CATEGORY)
+    @Description("Collecting the dependencies a project receives from itself and its upstream projects")
+    static class ProjectPropagationEvent extends jdk.jfr.Event {
+        @Label("Project")
+        String project;
+
+        @Label("Source Projects")
+        int sourceCount;
+
+        @Label("Received Dependencies")
+        int dependencyCount;
+    }
+
+    @Name(PREFIX + "GraphUpdate")
+    @Label("Graph Update")
+    @Category(CATEGORY)
+    @Description("Checking the new edges of the project dependency graph")
+    static class GraphUpdateEvent extends jdk.jfr.Event {
+        @Label("Projects")
+        int projectCount;
+
+        @Label("New Edges")
+        @Description("-1, if they were not checked")
+        int edgeCount;
+    }
+}
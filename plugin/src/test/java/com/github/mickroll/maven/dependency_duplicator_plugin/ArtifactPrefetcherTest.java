@@ -0,0 +1,132 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionMetrics.Counter;
+
+class ArtifactPrefetcherTest {
+
+    @TempDir
+    Path localRepository;
+
+    private final ExtensionMetrics metrics = new ExtensionMetrics();
+    private final RepositorySystem repositorySystem = MavenRepositorySystemUtils.newServiceLocator().getService(RepositorySystem.class);
+    private final DefaultRepositorySystemSession repositorySession = MavenRepositorySystemUtils.newSession();
+
+    private final MavenProject lib = project("lib");
+    private final MavenProject app = project("app");
+    private final MavenProject app2 = project("app2");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        repositorySession.setOffline(true);
+        repositorySession.setLocalRepositoryManager(repositorySystem.newLocalRepositoryManager(repositorySession,
+                new LocalRepository(localRepository.toFile())));
+        install("org/example/ext/1/ext-1.jar");
+        install("org/example/ext/1/ext-1-tests.jar");
+    }
+
+    @Test
+    void testPrefetch() {
+        final DuplicationPlan plan = DuplicationPlan.builder()
+                .add(app, Arrays.asList(dep("ext", "test-jar", null, "test"), dep("lib", "test-jar", null, "test")))
+                .add(app2, Arrays.asList(dep("ext", "test-jar", null, "test"), dep("ext", "jar", null, null)))
+                .build();
+
+        final Map<Artifact, ArtifactResolutionException> result = prefetcher().prefetch(plan, Arrays.asList(lib, app, app2));
+
+        assertThat(result).isEmpty();
+        assertThat(metrics.get(Counter.ARTIFACTS_PREFETCHED)).isEqualTo(2);
+        assertThat(metrics.get(Counter.ARTIFACTS_MISSING)).isZero();
+    }
+
+    @Test
+    void testMissingArtifactsAreReported() {
+        final DuplicationPlan plan = DuplicationPlan.builder()
+                .add(app, Arrays.asList(dep("missing", "jar", null, null), dep("ext", "jar", null, null)))
+                .add(app2, Arrays.asList(dep("ext", "jar", "sources", null), dep("missing", "jar", null, null)))
+                .build();
+
+        final Map<Artifact, ArtifactResolutionException> result = prefetcher().prefetch(plan, Collections.singletonList(app));
+
+        assertThat(result.keySet()).extracting(Artifact::toString).containsExactly(
+                "org.example:missing:jar:1",
+                "org.example:ext:jar:sources:1");
+        assertThat(metrics.get(Counter.ARTIFACTS_PREFETCHED)).isEqualTo(1);
+        assertThat(metrics.get(Counter.ARTIFACTS_MISSING)).isEqualTo(2);
+    }
+
+    @Test
+    void testRequestsSkipReactorRangesAndSystemScope() {
+        final Dependency range = dep("ranged", "jar", null, null);
+        range.setVersion("[1,2)");
+        final Dependency system = dep("system", "jar", null, "system");
+        system.setSystemPath("/lib/system.jar");
+        final DuplicationPlan plan = DuplicationPlan.builder()
+                .add(app, Arrays.asList(dep("lib", "jar", null, null), range, system, dep("ext", "test-jar", null, "test")))
+                .add(app2, Collections.singletonList(dep("ext", "jar", "tests", null)))
+                .build();
+
+        final List<String> result = prefetcher().requests(plan, Arrays.asList(lib, app, app2)).stream()
+                .map(request -> request.getArtifact().toString())
+                .collect(Collectors.toList());
+
+        // test-jar and jar with classifier tests denote the same artifact
+        assertThat(result).containsExactly("org.example:ext:jar:tests:1");
+    }
+
+    @Test
+    void testEmptyPlan() {
+        assertThat(prefetcher().prefetch(DuplicationPlan.builder().build(), Collections.singletonList(app))).isEmpty();
+    }
+
+    private ArtifactPrefetcher prefetcher() {
+        return new ArtifactPrefetcher(repositorySystem, repositorySession, 4, metrics);
+    }
+
+    private void install(final String path) throws IOException {
+        final Path file = localRepository.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[0]);
+    }
+
+    private static MavenProject project(final String artifactId) {
+        final MavenProject project = new MavenProject();
+        project.setGroupId("org.example");
+        project.setArtifactId(artifactId);
+        project.setVersion("1");
+        return project;
+    }
+
+    private static Dependency dep(final String artifactId, final String type, final String classifier, final String scope) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId("org.example");
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1");
+        dependency.setType(type);
+        dependency.setClassifier(classifier);
+        dependency.setScope(scope);
+        return dependency;
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.DuplicationPropagatorTest.TestGraph;
+
+class ChangeSetTest {
+
+    @TempDir
+    Path tempDir;
+
+    // root is parent of all, a <- b, c
+    private MavenProject root;
+    private MavenProject a;
+    private MavenProject b;
+    private MavenProject c;
+    private TestGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        root = project("root", "pom", tempDir);
+        a = project("a", "jar", tempDir.resolve("a"));
+        b = project("b", "jar", tempDir.resolve("b"));
+        c = project("c", "jar", tempDir.resolve("modules/c"));
+        graph = new TestGraph(Arrays.asList(root, a, b, c))
+                .edge(a, root)
+                .edge(b, root)
+                .edge(c, root)
+                .edge(b, a);
+    }
+
+    @Test
+    void testChangedProjectAndDownstream() {
+        assertThat(affected("a/src/main/java/A.java")).containsOnly(a, b);
+        assertThat(affected("b/pom.xml", "modules/c")).containsOnly(b, c);
+    }
+
+    @Test
+    void testNothingChanged() {
+        assertThat(affected()).isEmpty();
+    }
+
+    @Test
+    void testPomProjectOnlyChangedByPomFile() {
+        assertThat(affected("README.md", "modules/notes.txt")).isEmpty();
+        assertThat(affected("pom.xml")).containsOnly(root, a, b, c);
+    }
+
+    @Test
+    void testUnknownChangesAffectAllProjects() {
+        assertThat(new ChangeSet(tempDir, Collections.singletonList(".mvn/maven.config")).getAffectedProjects(graph, graph.getAllProjects()))
+                .isEmpty();
+        assertThat(new ChangeSet(tempDir, Collections.singletonList("../elsewhere/File.java")).getAffectedProjects(graph, graph.getAllProjects()))
+                .isEmpty();
+    }
+
+    @Test
+    void testGit() throws IOException, InterruptedException {
+        assumeTrue(gitAvailable(), "git not available");
+        write("a/src/A.java");
+        write("modules/c/src/C.java");
+        ChangeSet.git(tempDir, "init", "-q");
+        ChangeSet.git(tempDir, "add", ".");
+        ChangeSet.git(tempDir, "-c", "user.name=test", "-c", "user.email=test@example.org", "commit", "-q", "-m", "initial");
+
+        write("modules/c/src/C.java");
+        write("b/src/New.java");
+        final List<String> paths = ChangeSet.changedFiles(tempDir, "HEAD");
+
+        assertThat(paths).containsExactlyInAnyOrder("modules/c/src/C.java", "b/src/New.java");
+        assertThat(new ChangeSet(tempDir, paths).getAffectedProjects(graph, graph.getAllProjects())).hasValueSatisfying(
+                affected -> assertThat(affected).containsOnly(b, c));
+    }
+
+    @Test
+    void testGitFailure() {
+        assumeTrue(gitAvailable(), "git not available");
+
+        assertThatThrownBy(() -> ChangeSet.changedFiles(tempDir, "no-such-ref"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("failed with exit code");
+    }
+
+    private Set<MavenProject> affected(final String... paths) {
+        final Optional<Set<MavenProject>> result = new ChangeSet(tempDir, Arrays.asList(paths)).getAffectedProjects(graph,
+                graph.getAllProjects());
+        assertThat(result).isPresent();
+        return result.get();
+    }
+
+    private void write(final String path) throws IOException {
+        final Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, String.valueOf(System.nanoTime()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean gitAvailable() {
+        try {
+            ChangeSet.git(new File(".").toPath(), "--version");
+            return true;
+        } catch (final IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    private static MavenProject project(final String artifactId, final String packaging, final Path basedir) {
+        final MavenProject project = new MavenProject();
+        project.setGroupId("org.example");
+        project.setArtifactId(artifactId);
+        project.setVersion("1");
+        project.setPackaging(packaging);
+        project.setFile(basedir.resolve("pom.xml").toFile());
+        return project;
+    }
+}
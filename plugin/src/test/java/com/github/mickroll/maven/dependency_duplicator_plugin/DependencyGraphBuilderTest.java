@@ -0,0 +1,158 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.maven.graph.DefaultProjectDependencyGraph;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+class DependencyGraphBuilderTest {
+
+    private final MavenProject a = project("a");
+    private final MavenProject b = project("b");
+    private final MavenProject c = project("c");
+
+    @Test
+    void testNoNewEdgeForKnownEdge() throws Exception {
+        b.getDependencies().add(dep("a", "jar"));
+
+        final Optional<List<String[]>> newEdges = DependencyGraphBuilder.findNewEdges(upstreamProjects(), newDependencies(b, dep("a", "test-jar")));
+
+        assertThat(newEdges).hasValueSatisfying(edges -> assertThat(edges).isEmpty());
+    }
+
+    @Test
+    void testNoNewEdgeForExternalDependency() throws Exception {
+        final Dependency external = dep("a", "jar");
+        external.setGroupId("org.other");
+
+        final Optional<List<String[]>> newEdges = DependencyGraphBuilder.findNewEdges(upstreamProjects(), newDependencies(b, external));
+
+        assertThat(newEdges).hasValueSatisfying(edges -> assertThat(edges).isEmpty());
+    }
+
+    @Test
+    void testNoNewEdgeForSelf() throws Exception {
+        final Optional<List<String[]>> newEdges = DependencyGraphBuilder.findNewEdges(upstreamProjects(), newDependencies(c, dep("c", "test-jar")));
+
+        assertThat(newEdges).hasValueSatisfying(edges -> assertThat(edges).isEmpty());
+    }
+
+    @Test
+    void testRangeRequiresRebuild() throws Exception {
+        final Dependency range = dep("a", "jar");
+        range.setVersion("[1,2)");
+
+        assertThat(DependencyGraphBuilder.findNewEdges(upstreamProjects(), newDependencies(b, range))).isEmpty();
+    }
+
+    @Test
+    void testNewEdge() throws Exception {
+        // a <- b, new a <- c
+        b.getDependencies().add(dep("a", "jar"));
+        final Map<MavenProject, List<MavenProject>> upstreamProjects = upstreamProjects();
+
+        final Optional<List<String[]>> newEdges = DependencyGraphBuilder.findNewEdges(upstreamProjects, newDependencies(c, dep("a", "test-jar")));
+
+        assertThat(newEdges).hasValueSatisfying(edges -> assertThat(edges).containsExactly(new String[] { "org.example:c:1", "org.example:a:1" }));
+        assertThat(DependencyGraphBuilder.findCycle(upstreamProjects, newEdges.get())).isEmpty();
+    }
+
+    @Test
+    void testNoNewEdgeForTransitiveEdge() throws Exception {
+        // a <- b <- c, the edge a <- c is implied by the existing ones
+        b.getDependencies().add(dep("a", "jar"));
+        c.getDependencies().add(dep("b", "jar"));
+
+        assertThat(DependencyGraphBuilder.findNewEdges(upstreamProjects(), newDependencies(c, dep("a", "test-jar"))))
+                .hasValueSatisfying(edges -> assertThat(edges).isEmpty());
+    }
+
+    @Test
+    void testCycleDetected() throws Exception {
+        // a <- b <- c, a <- d, new c <- a
+        b.getDependencies().add(dep("a", "jar"));
+        c.getDependencies().add(dep("b", "jar"));
+        final MavenProject d = project("d");
+        d.getDependencies().add(dep("a", "jar"));
+        final Map<MavenProject, List<MavenProject>> upstreamProjects = DependencyGraphBuilder
+                .getDirectUpstreamProjects(new DefaultProjectDependencyGraph(Arrays.asList(a, b, c, d)));
+
+        final Optional<List<String[]>> newEdges = DependencyGraphBuilder.findNewEdges(upstreamProjects, newDependencies(a, dep("c", "test-jar")));
+        assertThat(newEdges).hasValueSatisfying(edges -> assertThat(edges).hasSize(1));
+
+        // d only depends on the cycle
+        assertThat(DependencyGraphBuilder.findCycle(upstreamProjects, newEdges.get()))
+                .containsExactly("org.example:a:1", "org.example:b:1", "org.example:c:1");
+    }
+
+    @Test
+    void testGetDirectUpstreamProjects() throws Exception {
+        final MavenProject d = project("d");
+        // a <- b <- c, a <- d, b <- d
+        b.getDependencies().add(dep("a", "jar"));
+        c.getDependencies().add(dep("b", "jar"));
+        d.getDependencies().add(dep("a", "jar"));
+        d.getDependencies().add(dep("b", "test-jar"));
+        final DefaultProjectDependencyGraph graph = new DefaultProjectDependencyGraph(Arrays.asList(d, c, b, a));
+
+        final Map<MavenProject, List<MavenProject>> result = DependencyGraphBuilder.getDirectUpstreamProjects(graph);
+
+        assertThat(result).containsOnlyKeys(a, b, c, d);
+        for (final MavenProject project : graph.getSortedProjects()) {
+            assertThat(result.get(project)).as(project.getArtifactId())
+                    .containsExactlyInAnyOrderElementsOf(graph.getUpstreamProjects(project, false));
+        }
+    }
+
+    @Test
+    void testReactorShape() throws Exception {
+        final MavenProject d = project("d");
+        // a <- b <- c, a <- d
+        b.getDependencies().add(dep("a", "jar"));
+        c.getDependencies().add(dep("b", "jar"));
+        d.getDependencies().add(dep("a", "jar"));
+
+        final ReactorShape shape = ReactorShape.of(new DefaultProjectDependencyGraph(Arrays.asList(a, b, c, d)));
+        assertThat(shape.getLongestPath()).isEqualTo(3);
+        assertThat(shape.getMaxWidth()).isEqualTo(2);
+
+        d.getDependencies().add(dep("c", "test-jar"));
+        final ReactorShape after = ReactorShape.of(new DefaultProjectDependencyGraph(Arrays.asList(a, b, c, d)));
+        assertThat(after.getLongestPath()).isEqualTo(4);
+        assertThat(after.getMaxWidth()).isEqualTo(1);
+    }
+
+    private Map<MavenProject, List<MavenProject>> upstreamProjects() throws Exception {
+        return DependencyGraphBuilder.getDirectUpstreamProjects(new DefaultProjectDependencyGraph(Arrays.asList(a, b, c)));
+    }
+
+    private static DuplicationPlan newDependencies(final MavenProject project, final Dependency dependency) {
+        return DuplicationPlan.builder().add(project, Collections.singletonList(dependency)).build();
+    }
+
+    private static MavenProject project(final String artifactId) {
+        final Model model = new Model();
+        model.setGroupId("org.example");
+        model.setArtifactId(artifactId);
+        model.setVersion("1");
+        return new MavenProject(model);
+    }
+
+    private static Dependency dep(final String artifactId, final String type) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId("org.example");
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1");
+        dependency.setType(type);
+        return dependency;
+    }
+}
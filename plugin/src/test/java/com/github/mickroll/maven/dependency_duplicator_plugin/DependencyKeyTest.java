@@ -0,0 +1,157 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+class DependencyKeyTest {
+
+    @Test
+    void testEmptyEquals() {
+        final Dependency d1 = new Dependency();
+        final Dependency d2 = new Dependency();
+
+        assertThat(DependencyKey.of(d1).equals(DependencyKey.of(d2))).isTrue();
+    }
+
+    @Test
+    void testGATC_Same() {
+        final Dependency d1 = dep("org.example", "someartifact", "jar", "testclassifier");
+        final Dependency d2 = dep("org.example", "someartifact", "jar", "testclassifier");
+
+        assertThat(DependencyKey.of(d1).equals(DependencyKey.of(d2))).isTrue();
+    }
+
+    @Test
+    void testGATC_DiffG() {
+        final Dependency d1 = dep("org.example", "someartifact", "jar", "testclassifier");
+        final Dependency d2 = dep("org.example2", "someartifact", "jar", "testclassifier");
+
+        assertThat(DependencyKey.of(d1).equals(DependencyKey.of(d2))).isFalse();
+    }
+
+    @Test
+    void testGATC_DiffA() {
+        final Dependency d1 = dep("org.example", "someartifact", "jar", "testclassifier");
+        final Dependency d2 = dep("org.example", "someartifact2", "jar", "testclassifier");
+
+        assertThat(DependencyKey.of(d1).equals(DependencyKey.of(d2))).isFalse();
+    }
+
+    @Test
+    void testGATC_DiffT() {
+        final Dependency d1 = dep("org.example", "someartifact", "jar", "testclassifier");
+        final Dependency d2 = dep("org.example", "someartifact", "war", "testclassifier");
+
+        assertThat(DependencyKey.of(d1).equals(DependencyKey.of(d2))).isFalse();
+    }
+
+    @Test
+    void testGATC_DiffC() {
+        final Dependency d1 = dep("org.example", "someartifact", "jar", "testclassifier");
+        final Dependency d2 = dep("org.example", "someartifact", "jar", "testclassifier2");
+
+        assertThat(DependencyKey.of(d1).equals(DependencyKey.of(d2))).isFalse();
+    }
+
+    @Test
+    void testGATC_DiffNoC() {
+        final Dependency d1 = dep("org.example", "someartifact", "jar", "testclassifier");
+        final Dependency d2 = dep("org.example", "someartifact", "jar", null);
+
+        assertThat(DependencyKey.of(d1).equals(DependencyKey.of(d2))).isFalse();
+    }
+
+    @Test
+    void testGAT_Same() {
+        final Dependency d1 = dep("org.example", "someartifact", "jar", null);
+        final Dependency d2 = dep("org.example", "someartifact", "jar", null);
+
+        assertThat(DependencyKey.of(d1).equals(DependencyKey.of(d2))).isTrue();
+    }
+
+    @Test
+    void testExclusions_OrderIgnored() {
+        final Dependency d1 = dep("org.example", "someartifact", "jar", null);
+        d1.addExclusion(excl("org.example", "a"));
+        d1.addExclusion(excl("org.example", "b"));
+        final Dependency d2 = dep("org.example", "someartifact", "jar", null);
+        d2.addExclusion(excl("org.example", "b"));
+        d2.addExclusion(excl("org.example", "a"));
+
+        assertThat(DependencyKey.of(d1).equals(DependencyKey.of(d2))).isTrue();
+    }
+
+    @Test
+    void testExclusions_Diff() {
+        final Dependency d1 = dep("org.example", "someartifact", "jar", null);
+        d1.addExclusion(excl("org.example", "a"));
+        final Dependency d2 = dep("org.example", "someartifact", "jar", null);
+
+        assertThat(DependencyKey.of(d1).equals(DependencyKey.of(d2))).isFalse();
+    }
+
+    @Test
+    void testPlanKeepsFirstAndOrder() {
+        final Dependency d1 = dep("org.example", "someartifact", "jar", null);
+        final Dependency d2 = dep("org.example", "otherartifact", "jar", null);
+        final Dependency d1Copy = dep("org.example", "someartifact", "jar", null);
+        final MavenProject project = new MavenProject();
+
+        final DuplicationPlan underTest = DuplicationPlan.builder().add(project, Arrays.asList(d1, d2, d1Copy)).build();
+
+        assertThat(underTest.getDependencies(project)).extracting(DependencyKey::of)
+                .containsExactly(DependencyKey.of(d1), DependencyKey.of(d2));
+        assertThat(underTest.getDistinctDependencyCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testToDependency() {
+        final Dependency dependency = dep("org.example", "someartifact", "jar", "testclassifier");
+        dependency.setVersion("1.0");
+        dependency.setScope("system");
+        dependency.setOptional(true);
+        dependency.setSystemPath("/lib/someartifact.jar");
+        dependency.addExclusion(excl("org.example", "b"));
+        dependency.addExclusion(excl("org.example", "a"));
+
+        final Dependency result = DependencyKey.of(dependency).toDependency();
+
+        assertThat(result).isNotSameAs(dependency);
+        assertThat(DependencyKey.of(result)).isEqualTo(DependencyKey.of(dependency));
+        assertThat(result.getSystemPath()).isEqualTo("/lib/someartifact.jar");
+        assertThat(result.getExclusions()).extracting(Exclusion::getArtifactId).containsExactly("a", "b");
+    }
+
+    @Test
+    void testPlannedDependencyDoesNotReferToSource() {
+        final Dependency dependency = dep("org.example", "someartifact", "jar", null);
+        final PlannedDependency planned = PlannedDependency.of(dependency);
+
+        dependency.setArtifactId("changed");
+
+        assertThat(planned.materialize()).isNotSameAs(dependency);
+        assertThat(planned.materialize().getArtifactId()).isEqualTo("someartifact");
+    }
+
+    private static Exclusion excl(final String groupId, final String artifactId) {
+        final Exclusion exclusion = new Exclusion();
+        exclusion.setGroupId(groupId);
+        exclusion.setArtifactId(artifactId);
+        return exclusion;
+    }
+
+    private static Dependency dep(final String groupId, final String artifactId, final String type, final String classifier) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setType(type);
+        dependency.setClassifier(classifier);
+        return dependency;
+    }
+}
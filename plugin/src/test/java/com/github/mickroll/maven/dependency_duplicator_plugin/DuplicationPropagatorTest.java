@@ -0,0 +1,357 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionEvents.Event;
+
+class DuplicationPropagatorTest {
+
+    // a <- b <- c, a <- d, e
+    private final MavenProject a = project("a");
+    private final MavenProject b = project("b");
+    private final MavenProject c = project("c");
+    private final MavenProject d = project("d");
+    private final MavenProject e = project("e");
+    private final TestGraph graph = new TestGraph(Arrays.asList(a, b, c, d, e))
+            .edge(b, a)
+            .edge(c, b)
+            .edge(d, a);
+
+    @Test
+    void testNoDownstream() {
+        final DuplicationPropagator underTest = new DuplicationPropagator(graph.getAllProjects());
+        final Dependency dep1 = dep("x1");
+        underTest.add(b, Collections.singletonList(dep1), false);
+
+        final DuplicationPlan result = underTest.propagate(graph, graph.getSortedProjects());
+
+        assertThat(result.getProjects()).containsExactly(b);
+        assertThat(result.getDependencies(b)).extracting(DependencyKey::of).containsExactly(DependencyKey.of(dep1));
+    }
+
+    @Test
+    void testDownstream() {
+        final DuplicationPropagator underTest = new DuplicationPropagator(graph.getAllProjects());
+        final Dependency dep1 = dep("x1");
+        underTest.add(a, Collections.singletonList(dep1), true);
+
+        final DuplicationPlan result = underTest.propagate(graph, graph.getSortedProjects());
+
+        assertThat(result.getProjects()).containsExactly(a, b, c, d);
+        assertThat(result.getProjects()).allSatisfy(project -> assertThat(result.getDependencies(project)).extracting(DependencyKey::of).containsExactly(DependencyKey.of(dep1)));
+    }
+
+    @Test
+    void testPropagationEvents() {
+        final DuplicationPropagator underTest = new DuplicationPropagator(graph.getAllProjects());
+        underTest.add(a, Collections.singletonList(dep("x1")), true);
+        underTest.add(b, Collections.singletonList(dep("x2")), false);
+        final List<String> events = new ArrayList<>();
+
+        underTest.propagate(graph, graph.getSortedProjects(), false, new ExtensionEvents() {
+            @Override
+            public Event propagation(final MavenProject project) {
+                return new Event() {
+                    private int projectCount;
+                    private int dependencyCount;
+
+                    @Override
+                    public void setProjectCount(final int projectCount) {
+                        this.projectCount = projectCount;
+                    }
+
+                    @Override
+                    public void setDependencyCount(final int dependencyCount) {
+                        this.dependencyCount = dependencyCount;
+                    }
+
+                    @Override
+                    public void close() {
+                        events.add(project.getArtifactId() + ":" + projectCount + ":" + dependencyCount);
+                    }
+                };
+            }
+        });
+
+        assertThat(events).containsExactlyInAnyOrder("a:1:1", "b:2:2", "c:1:1", "d:1:1");
+    }
+
+    @Test
+    void testSameAsNaivePropagation() {
+        final DuplicationPropagator underTest = new DuplicationPropagator(graph.getAllProjects());
+        final Map<MavenProject, List<Object[]>> added = new LinkedHashMap<>();
+        add(underTest, added, c, Arrays.asList(dep("c1")), false);
+        add(underTest, added, a, Arrays.asList(dep("a1"), dep("common")), false);
+        add(underTest, added, b, Arrays.asList(dep("b1")), true);
+        add(underTest, added, a, Arrays.asList(dep("a2"), dep("common")), true);
+        add(underTest, added, e, Arrays.asList(dep("e1")), true);
+        add(underTest, added, c, Arrays.asList(dep("c2"), dep("a2")), true);
+
+        final DuplicationPlan result = underTest.propagate(graph, graph.getSortedProjects());
+
+        assertSameAsNaive(result, naive(graph, added));
+    }
+
+    @Test
+    void testSameAsNaivePropagationProjectsNotInBuildOrder() {
+        // the reactor lists downstream projects before their upstream projects
+        final TestGraph unsorted = new TestGraph(Arrays.asList(a, b, c, d, e), Arrays.asList(e, c, d, b, a))
+                .edge(b, a)
+                .edge(c, b)
+                .edge(d, a);
+        final DuplicationPropagator underTest = new DuplicationPropagator(unsorted.getAllProjects());
+        final Map<MavenProject, List<Object[]>> added = new LinkedHashMap<>();
+        add(underTest, added, c, Arrays.asList(dep("c1")), false);
+        add(underTest, added, b, Arrays.asList(dep("b1"), dep("common")), true);
+        add(underTest, added, d, Arrays.asList(dep("d1")), false);
+        add(underTest, added, a, Arrays.asList(dep("a1"), dep("common")), true);
+
+        final DuplicationPlan result = underTest.propagate(unsorted, unsorted.getSortedProjects());
+
+        assertSameAsNaive(result, naive(unsorted, added));
+        assertThat(result.getProjects()).containsExactly(c, d, b, a);
+    }
+
+    @Test
+    void testFilteredTargets() {
+        final DuplicationPropagator underTest = new DuplicationPropagator(graph.getAllProjects());
+        final Dependency dep1 = dep("x1");
+        underTest.add(a, Collections.singletonList(dep1), true);
+
+        // building only c: a is not a target, but still receives its own dependencies (as before)
+        final DuplicationPlan result = underTest.propagate(graph, Collections.singletonList(c));
+
+        assertThat(result.getProjects()).containsExactly(a, c);
+    }
+
+    @Test
+    void testTargetsOnly() {
+        final DuplicationPropagator underTest = new DuplicationPropagator(graph.getAllProjects());
+        final Dependency dep1 = dep("x1");
+        underTest.add(a, Collections.singletonList(dep1), true);
+
+        final DuplicationPlan result = underTest.propagate(graph, Collections.singletonList(c), true);
+
+        assertThat(result.getProjects()).containsExactly(c);
+        assertThat(result.getDependencies(c)).extracting(DependencyKey::of).containsExactly(DependencyKey.of(dep1));
+    }
+
+    @Test
+    void testWithUpstreamProjects() {
+        assertThat(DuplicationPropagator.withUpstreamProjects(graph, graph.getAllProjects(), Arrays.asList(c, e))).containsExactly(a, b, c, e);
+        assertThat(DuplicationPropagator.withUpstreamProjects(graph, graph.getAllProjects(), Collections.singletonList(d))).containsExactly(a, d);
+    }
+
+    @Test
+    void testSelectedProjectsOnlySameAsFullPlan() {
+        final DuplicationPropagator full = new DuplicationPropagator(graph.getAllProjects());
+        full.add(a, Collections.singletonList(dep("x1")), true);
+        full.add(b, Collections.singletonList(dep("x2")), true);
+        full.add(d, Collections.singletonList(dep("x3")), true);
+        final DuplicationPlan fullPlan = full.propagate(graph, graph.getSortedProjects());
+
+        final List<MavenProject> planned = DuplicationPropagator.withUpstreamProjects(graph, graph.getAllProjects(), Collections.singletonList(c));
+        final DuplicationPropagator selected = new DuplicationPropagator(planned);
+        selected.add(a, Collections.singletonList(dep("x1")), true);
+        selected.add(b, Collections.singletonList(dep("x2")), true);
+        final DuplicationPlan selectedPlan = selected.propagate(graph, Collections.singletonList(c), true);
+
+        assertThat(selectedPlan.getProjects()).containsExactly(c);
+        assertThat(keys(selectedPlan.getDependencies(c))).containsExactlyElementsOf(keys(fullPlan.getDependencies(c)));
+    }
+
+    @Test
+    void testAddedPerRule() {
+        final DuplicationPropagator underTest = new DuplicationPropagator(graph.getAllProjects());
+        underTest.add(a, new DuplicationPropagator.Contribution(planned(dep("x1"), dep("x2")), true, "rule1"));
+        underTest.add(c, new DuplicationPropagator.Contribution(planned(dep("x1"), dep("x3")), false, "rule2"));
+
+        final DuplicationPlan result = underTest.propagate(graph, graph.getSortedProjects());
+
+        // a, b, c and d receive x1 and x2 from rule1, x1 is already present in c
+        assertThat(result.getAddedPerRule()).containsOnly(entry("rule1", 8), entry("rule2", 1));
+        // counted on the filtered plan
+        assertThat(result.retain(key -> !"x1".equals(key.getArtifactId())).getAddedPerRule()).containsOnly(entry("rule1", 4), entry("rule2", 1));
+        assertThat(result.retain(key -> "x1".equals(key.getArtifactId())).getAddedPerRule()).containsOnly(entry("rule1", 4));
+    }
+
+    @Test
+    void testEqualDependenciesAreShared() {
+        final DuplicationPropagator underTest = new DuplicationPropagator(graph.getAllProjects());
+        final Dependency fromA = dep("x1");
+        underTest.add(a, Collections.singletonList(fromA), true);
+        underTest.add(b, Collections.singletonList(dep("x1")), true);
+        underTest.add(e, Collections.singletonList(dep("x1")), false);
+
+        final DuplicationPlan result = underTest.propagate(graph, graph.getSortedProjects());
+
+        assertThat(result.getDistinctDependencyCount()).isEqualTo(1);
+        final Dependency shared = result.getDependencies(a).get(0);
+        assertThat(DependencyKey.of(shared)).isEqualTo(DependencyKey.of(fromA));
+        for (final MavenProject project : result.getProjects()) {
+            assertThat(result.getDependencies(project)).as(project.getArtifactId()).hasSize(1).allSatisfy(d -> assertThat(d).isSameAs(shared));
+        }
+    }
+
+    @Test
+    void testRetain() {
+        final DuplicationPropagator underTest = new DuplicationPropagator(graph.getAllProjects());
+        final Dependency test = dep("x1");
+        test.setScope("test");
+        final Dependency compile = dep("x2");
+        underTest.add(b, Arrays.asList(test, compile), true);
+        underTest.add(e, Collections.singletonList(test), false);
+        final DuplicationPlan plan = underTest.propagate(graph, graph.getSortedProjects());
+
+        final DuplicationPlan result = plan.retain(key -> !"test".equals(key.getScope()));
+
+        assertThat(plan.getTotalDependencyCount()).isEqualTo(5);
+        assertThat(result.getProjects()).containsExactly(b, c);
+        assertThat(result.getDependencies(b)).extracting(DependencyKey::of).containsExactly(DependencyKey.of(compile));
+        assertThat(result.getDependencies(c)).extracting(DependencyKey::of).containsExactly(DependencyKey.of(compile));
+        assertThat(result.getDistinctDependencyCount()).isEqualTo(1);
+        assertThat(result.getTotalDependencyCount()).isEqualTo(2);
+    }
+
+    private void add(final DuplicationPropagator underTest, final Map<MavenProject, List<Object[]>> added, final MavenProject source,
+            final List<Dependency> dependencies, final boolean addDownstream) {
+        underTest.add(source, dependencies, addDownstream);
+        added.computeIfAbsent(source, p -> new ArrayList<>()).add(new Object[] { dependencies, addDownstream });
+    }
+
+    private static void assertSameAsNaive(final DuplicationPlan result, final Map<MavenProject, Set<DependencyKey>> expected) {
+        assertThat(result.getProjects()).containsExactlyElementsOf(expected.keySet());
+        for (final MavenProject project : expected.keySet()) {
+            assertThat(keys(result.getDependencies(project))).as(project.getArtifactId()).containsExactlyElementsOf(expected.get(project));
+        }
+    }
+
+    /**
+     * Mimics the former implementation, which processed each contribution separately, in the order of all projects.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<MavenProject, Set<DependencyKey>> naive(final ProjectDependencyGraph graph,
+            final Map<MavenProject, List<Object[]>> added) {
+        final Map<MavenProject, Set<DependencyKey>> result = new LinkedHashMap<>();
+        for (final MavenProject source : graph.getAllProjects()) {
+            for (final Object[] contribution : added.getOrDefault(source, Collections.emptyList())) {
+                final List<MavenProject> targets = new ArrayList<>();
+                targets.add(source);
+                if ((Boolean) contribution[1]) {
+                    targets.addAll(graph.getDownstreamProjects(source, true));
+                }
+                for (final MavenProject target : targets) {
+                    result.computeIfAbsent(target, p -> new LinkedHashSet<>()).addAll(keys((List<Dependency>) contribution[0]));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<DependencyKey> keys(final Collection<Dependency> dependencies) {
+        final List<DependencyKey> result = new ArrayList<>();
+        dependencies.forEach(d -> result.add(DependencyKey.of(d)));
+        return result;
+    }
+
+    private static List<PlannedDependency> planned(final Dependency... dependencies) {
+        final List<PlannedDependency> result = new ArrayList<>();
+        for (final Dependency dependency : dependencies) {
+            result.add(PlannedDependency.of(dependency));
+        }
+        return result;
+    }
+
+    private static MavenProject project(final String artifactId) {
+        final MavenProject project = new MavenProject();
+        project.setGroupId("org.example");
+        project.setArtifactId(artifactId);
+        project.setVersion("1");
+        return project;
+    }
+
+    private static Dependency dep(final String artifactId) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId("org.example");
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1");
+        return dependency;
+    }
+
+    /**
+     * Minimal graph, projects have to be given in topological order.
+     */
+    static class TestGraph implements ProjectDependencyGraph {
+        private final List<MavenProject> projects;
+        private final List<MavenProject> allProjects;
+        private final Map<MavenProject, Set<MavenProject>> upstream = new LinkedHashMap<>();
+
+        TestGraph(final List<MavenProject> projects) {
+            this(projects, projects);
+        }
+
+        /**
+         * @param projects projects in topological order
+         * @param allProjects the same projects, in the order they were collected
+         */
+        TestGraph(final List<MavenProject> projects, final List<MavenProject> allProjects) {
+            this.projects = projects;
+            this.allProjects = allProjects;
+            projects.forEach(p -> upstream.put(p, new LinkedHashSet<>()));
+        }
+
+        TestGraph edge(final MavenProject downstream, final MavenProject upstreamProject) {
+            upstream.get(downstream).add(upstreamProject);
+            return this;
+        }
+
+        @Override
+        public List<MavenProject> getAllProjects() {
+            return allProjects;
+        }
+
+        @Override
+        public List<MavenProject> getSortedProjects() {
+            return projects;
+        }
+
+        @Override
+        public List<MavenProject> getDownstreamProjects(final MavenProject project, final boolean transitive) {
+            final List<MavenProject> result = new ArrayList<>();
+            for (final MavenProject candidate : projects) {
+                if (transitive ? getUpstreamProjects(candidate, true).contains(project) : upstream.get(candidate).contains(project)) {
+                    result.add(candidate);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<MavenProject> getUpstreamProjects(final MavenProject project, final boolean transitive) {
+            final Set<MavenProject> result = new LinkedHashSet<>();
+            for (final MavenProject direct : upstream.get(project)) {
+                result.add(direct);
+                if (transitive) {
+                    result.addAll(getUpstreamProjects(direct, true));
+                }
+            }
+            return new ArrayList<>(result);
+        }
+    }
+}
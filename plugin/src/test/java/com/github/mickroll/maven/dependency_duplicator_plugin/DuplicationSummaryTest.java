@@ -0,0 +1,80 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.junit.jupiter.api.Test;
+
+class DuplicationSummaryTest {
+
+    @Test
+    void testEnabledByReactorSize() {
+        final ExtensionSettings settings = new ExtensionSettings(new Properties(), new Properties(), 1);
+
+        assertThat(DuplicationSummary.of(settings, 50, Optional.empty()).isEnabled()).isFalse();
+        assertThat(DuplicationSummary.of(settings, 51, Optional.empty()).isEnabled()).isTrue();
+    }
+
+    @Test
+    void testEnabledByProperty() {
+        final Properties userProperties = new Properties();
+        userProperties.setProperty(DuplicationSummary.ENABLED, "false");
+        final ExtensionSettings settings = new ExtensionSettings(userProperties, new Properties(), 1);
+
+        assertThat(DuplicationSummary.of(settings, 1000, Optional.empty()).isEnabled()).isFalse();
+    }
+
+    @Test
+    void testTrackRules() {
+        final ExtensionSettings settings = new ExtensionSettings(new Properties(), new Properties(), 1);
+        final Optional<ProducerIndex> producerIndex = Optional.of(new ProducerIndex(
+                MavenRepositorySystemUtils.newSession().getArtifactTypeRegistry(), Collections.emptyList()));
+
+        assertThat(DuplicationSummary.of(settings, 1, Optional.empty()).isTrackRules()).isFalse();
+        assertThat(DuplicationSummary.of(settings, 1, producerIndex).isTrackRules()).isTrue();
+        assertThat(DuplicationSummary.of(settings, 51, Optional.empty()).isTrackRules()).isTrue();
+    }
+
+    @Test
+    void testFormat() {
+        final DuplicationSummary underTest = new DuplicationSummary(true, 1, 5, true);
+        underTest.projectWithoutConfig();
+        underTest.added(project("a"), 1);
+        underTest.added(project("b"), 3);
+        final Map<String, Integer> addedPerRule = new LinkedHashMap<>();
+        addedPerRule.put("[rule1]", 1);
+        addedPerRule.put("[rule2]", 3);
+        underTest.addedPerRule(addedPerRule);
+
+        assertThat(underTest.format()).containsExactly(
+                "2 of 5 projects touched, 4 dependencies added, 1 projects without plugin config",
+                "dependencies added per rule:",
+                "         3  [rule2]",
+                "         1  [rule1]",
+                "top 1 projects by added dependencies:",
+                "         3  b");
+    }
+
+    @Test
+    void testFormatCachedPlan() {
+        final DuplicationSummary underTest = new DuplicationSummary(true, 10, 0, true);
+        underTest.cachedPlan();
+        underTest.addedPerRule(Collections.emptyMap());
+
+        assertThat(underTest.format()).containsExactly("0 of 0 projects touched, 0 dependencies added, 0 projects without plugin config (cached plan)");
+    }
+
+    private static MavenProject project(final String name) {
+        final MavenProject project = new MavenProject();
+        project.setArtifactId(name);
+        project.setName(name);
+        return project;
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Properties;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionEvents.Event;
+
+class ExtensionEventsTest {
+
+    @Test
+    void testDisabledByDefault() {
+        assertThat(ExtensionEvents.of(new ExtensionSettings(new Properties(), new Properties(), 1))).isSameAs(ExtensionEvents.DISABLED);
+        assertThat(new ExtensionMetrics().events()).isSameAs(ExtensionEvents.DISABLED);
+    }
+
+    @Test
+    void testEnabled() {
+        final Properties userProperties = new Properties();
+        userProperties.setProperty(ExtensionEvents.ENABLED, "true");
+
+        final ExtensionEvents underTest = ExtensionEvents.of(new ExtensionSettings(userProperties, new Properties(), 1));
+
+        // tests run against the classes of the base (Java 8) variant, the Java 11 variant is tested by FlightRecorderEventsTest
+        assertThat(underTest).isSameAs(ExtensionEvents.DISABLED);
+        try (Event event = underTest.matching(new MavenProject())) {
+            event.setRuleCount(1);
+            event.setDependencyCount(2);
+            event.setMatchCount(3);
+        }
+    }
+}
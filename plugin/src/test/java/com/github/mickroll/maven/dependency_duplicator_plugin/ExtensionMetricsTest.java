@@ -0,0 +1,92 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionMetrics.Counter;
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionMetrics.Phase;
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionMetrics.Timer;
+
+class ExtensionMetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCounters() {
+        final ExtensionMetrics underTest = new ExtensionMetrics();
+        underTest.increment(Counter.MATCHES);
+        underTest.add(Counter.MATCHES, 2);
+
+        assertThat(underTest.get(Counter.MATCHES)).isEqualTo(3);
+        assertThat(underTest.get(Counter.DEPENDENCIES_ADDED)).isZero();
+    }
+
+    @Test
+    void testPhasesAreSummedUp() {
+        final ExtensionMetrics underTest = new ExtensionMetrics();
+        try (Timer timer = underTest.start(Phase.MATCHING)) {
+            busyWait();
+        }
+        final long first = underTest.getWallNanos(Phase.MATCHING);
+        try (Timer timer = underTest.start(Phase.MATCHING)) {
+            busyWait();
+        }
+
+        assertThat(first).isPositive();
+        assertThat(underTest.getWallNanos(Phase.MATCHING)).isGreaterThan(first);
+        assertThat(underTest.getWallNanos(Phase.APPLY)).isZero();
+    }
+
+    @Test
+    void testWrite() throws IOException {
+        final ExtensionMetrics underTest = new ExtensionMetrics();
+        underTest.add(Counter.DEPENDENCIES_ADDED, 42);
+        try (Timer timer = underTest.start(Phase.GRAPH_UPDATE)) {
+            busyWait();
+        }
+        underTest.finish();
+        final Path file = tempDir.resolve("target/metrics.json");
+
+        underTest.write(file);
+
+        final String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertThat(json)
+                .startsWith("{")
+                .contains("\"totalMillis\": ")
+                .contains("\"graphUpdate\": { \"invocations\": 1, \"wallMillis\": ")
+                .contains("\"configResolution\": { \"invocations\": 0, \"wallMillis\": 0.000, \"cpuMillis\": 0.000, \"allocatedBytes\": 0 }")
+                .contains("\"dependenciesAdded\": 42")
+                .doesNotContain("\"reactor\"")
+                .endsWith("}\n");
+    }
+
+    @Test
+    void testWriteReactorShape() throws IOException {
+        final ExtensionMetrics underTest = new ExtensionMetrics();
+        underTest.setReactorShape(new ReactorShape(3, 5), new ReactorShape(4, 2));
+        final Path file = tempDir.resolve("metrics.json");
+
+        underTest.write(file);
+
+        final String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertThat(json)
+                .contains("\"reactor\": {\n    \"longestPathBefore\": 3,\n    \"longestPathAfter\": 4,\n"
+                        + "    \"maxWidthBefore\": 5,\n    \"maxWidthAfter\": 2\n  }")
+                .endsWith("}\n");
+    }
+
+    private static void busyWait() {
+        final long start = System.nanoTime();
+        while (System.nanoTime() - start < 100_000) {
+            // wait
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LruCacheTest {
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        final LruCache<String, Integer> underTest = new LruCache<>(2);
+        underTest.put("a", 1);
+        underTest.put("b", 2);
+        underTest.get("a");
+        underTest.put("c", 3);
+
+        assertThat(underTest.get("a")).isEqualTo(1);
+        assertThat(underTest.get("b")).isNull();
+        assertThat(underTest.get("c")).isEqualTo(3);
+    }
+
+    @Test
+    void testPutIfAbsent() {
+        final LruCache<String, Integer> underTest = new LruCache<>(2);
+
+        assertThat(underTest.putIfAbsent("a", 1)).isEqualTo(1);
+        assertThat(underTest.putIfAbsent("a", 2)).isEqualTo(1);
+    }
+
+    @Test
+    void testShrink() {
+        final LruCache<String, Integer> underTest = new LruCache<>(3);
+        underTest.put("a", 1);
+        underTest.put("b", 2);
+        underTest.put("c", 3);
+
+        underTest.setMaxSize(1);
+
+        assertThat(underTest.size()).isEqualTo(1);
+        assertThat(underTest.get("c")).isEqualTo(3);
+    }
+}
@@ -0,0 +1,172 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.DuplicationPropagatorTest.TestGraph;
+
+class PlanCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final MavenProject a = project("a");
+    private final MavenProject b = project("b");
+    private final List<MavenProject> projects = Arrays.asList(a, b);
+    private final TestGraph graph = new TestGraph(projects).edge(b, a);
+    private final Set<MavenProject> targets = new HashSet<>(projects);
+
+    @Test
+    void testFingerprintStable() {
+        final PlanCache underTest = new PlanCache(tempDir.resolve("plan.cache"));
+
+        assertThat(fingerprint(underTest, "<configuration/>")).isEqualTo(fingerprint(underTest, "<configuration/>"));
+    }
+
+    @Test
+    void testFingerprintChangesWithInputs() {
+        final PlanCache underTest = new PlanCache(tempDir.resolve("plan.cache"));
+        final String initial = fingerprint(underTest, "<configuration/>");
+
+        assertThat(fingerprint(underTest, "<configuration><x/></configuration>")).isNotEqualTo(initial);
+
+        b.getDependencies().add(dep("c", "jar"));
+        final String withDependency = fingerprint(underTest, "<configuration/>");
+        assertThat(withDependency).isNotEqualTo(initial);
+
+        b.getDependencies().get(0).setScope("test");
+        assertThat(fingerprint(underTest, "<configuration/>")).isNotEqualTo(withDependency);
+
+        targets.remove(a);
+        assertThat(fingerprint(underTest, "<configuration/>")).isNotEqualTo(initial);
+    }
+
+    @Test
+    void testFingerprintChangesWithUpstreamProjects() {
+        final PlanCache underTest = new PlanCache(tempDir.resolve("plan.cache"));
+        final String initial = fingerprint(underTest, "<configuration/>");
+
+        final String withoutEdge = underTest.fingerprint(projects, new TestGraph(projects), targets, false,
+                project -> Optional.of("<configuration/>"), Optional.empty());
+
+        assertThat(withoutEdge).isNotEqualTo(initial);
+    }
+
+    @Test
+    void testFingerprintChangesWithProducers() {
+        final PlanCache underTest = new PlanCache(tempDir.resolve("plan.cache"));
+        final String initial = fingerprint(underTest, producers());
+
+        assertThat(initial).isNotEqualTo(fingerprint(underTest, "<configuration/>"));
+
+        final PluginExecution execution = new PluginExecution();
+        execution.addGoal("jar-no-fork");
+        final Plugin plugin = new Plugin();
+        plugin.setArtifactId("maven-source-plugin");
+        plugin.addExecution(execution);
+        a.getBuild().addPlugin(plugin);
+        assertThat(fingerprint(underTest, producers())).isNotEqualTo(initial);
+    }
+
+    @Test
+    void testStoreAndLoad() {
+        final PlanCache underTest = new PlanCache(tempDir.resolve("sub/plan.cache"));
+        final DuplicationPlan plan = DuplicationPlan.builder()
+                .add(b, Arrays.asList(dep("a", "test-jar"), dep("other", "jar")))
+                .build();
+
+        underTest.store("fp1", plan);
+
+        final Optional<DuplicationPlan> loaded = underTest.load("fp1", projects);
+        assertThat(loaded).isPresent();
+        assertThat(loaded.get().getProjects()).containsExactly(b);
+        assertThat(loaded.get().getDependencies(b)).extracting(DependencyKey::of)
+                .containsExactly(DependencyKey.of(dep("a", "test-jar")), DependencyKey.of(dep("other", "jar")));
+
+        assertThat(underTest.load("fp2", projects)).isEmpty();
+    }
+
+    @Test
+    void testStoreAndLoadAllFields() {
+        final PlanCache underTest = new PlanCache(tempDir.resolve("plan.cache"));
+        final Dependency dependency = dep("a", "test-jar");
+        dependency.setClassifier("tests");
+        dependency.setScope("test");
+        dependency.setOptional(true);
+        final Exclusion exclusion = new Exclusion();
+        exclusion.setGroupId("org.other");
+        exclusion.setArtifactId("*");
+        dependency.addExclusion(exclusion);
+
+        underTest.store("fp1", DuplicationPlan.builder().add(a, Collections.singletonList(dependency)).build());
+
+        final Dependency loaded = underTest.load("fp1", projects).get().getDependencies(a).get(0);
+        assertThat(DependencyKey.of(loaded)).isEqualTo(DependencyKey.of(dependency));
+        assertThat(loaded.getSystemPath()).isNull();
+    }
+
+    @Test
+    void testLoadCorrupt() throws IOException {
+        final PlanCache underTest = new PlanCache(tempDir.resolve("plan.cache"));
+        underTest.store("fp1", DuplicationPlan.builder().add(b, Collections.singletonList(dep("a", "test-jar"))).build());
+        final List<String> lines = Files.readAllLines(underTest.getFile());
+
+        Files.write(underTest.getFile(), Arrays.asList(lines.get(0), lines.get(1), lines.get(2), "dependency org.example\ta"));
+        assertThat(underTest.load("fp1", projects)).isEmpty();
+
+        Files.write(underTest.getFile(), new byte[] { (byte) 0xac, (byte) 0xed, 0, 5 });
+        assertThat(underTest.load("fp1", projects)).isEmpty();
+    }
+
+    @Test
+    void testLoadMissing() {
+        assertThat(new PlanCache(tempDir.resolve("missing.cache")).load("fp", projects)).isEmpty();
+    }
+
+    private String fingerprint(final PlanCache underTest, final String configuration) {
+        return underTest.fingerprint(projects, graph, targets, false, project -> Optional.of(configuration), Optional.empty());
+    }
+
+    private Optional<ProducerIndex> producers() {
+        return Optional.of(new ProducerIndex(MavenRepositorySystemUtils.newSession().getArtifactTypeRegistry(), projects));
+    }
+
+    private String fingerprint(final PlanCache underTest, final Optional<ProducerIndex> producerIndex) {
+        return underTest.fingerprint(projects, graph, targets, false, project -> Optional.of("<configuration/>"), producerIndex);
+    }
+
+    private static MavenProject project(final String artifactId) {
+        final MavenProject project = new MavenProject();
+        project.setGroupId("org.example");
+        project.setArtifactId(artifactId);
+        project.setVersion("1");
+        return project;
+    }
+
+    private static Dependency dep(final String artifactId, final String type) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId("org.example");
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1");
+        dependency.setType(type);
+        return dependency;
+    }
+}
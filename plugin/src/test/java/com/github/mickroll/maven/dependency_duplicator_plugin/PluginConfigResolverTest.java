@@ -0,0 +1,123 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.util.Optional;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusContainerException;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.config.PluginMojo;
+
+class PluginConfigResolverTest {
+
+    private static final String CONFIG = "<configuration><duplications><duplication>"
+            + "<dependencyKeys><dependencyKey>org.example:.*</dependencyKey></dependencyKeys>"
+            + "<targetType>test-jar</targetType>"
+            + "</duplication></duplications></configuration>";
+
+    private DefaultPlexusContainer container;
+    private PluginConfigResolver underTest;
+
+    @BeforeEach
+    void setUp() throws PlexusContainerException, ReflectiveOperationException {
+        container = new DefaultPlexusContainer();
+        underTest = new PluginConfigResolver();
+        final Field field = PluginConfigResolver.class.getDeclaredField("container");
+        field.setAccessible(true);
+        field.set(underTest, container);
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.dispose();
+    }
+
+    @Test
+    void testEqualConfigurationIsShared() throws Exception {
+        final Optional<PluginMojo> a = underTest.findPluginConfig(null, project("a", CONFIG));
+        final Optional<PluginMojo> b = underTest.findPluginConfig(null, project("b", CONFIG));
+
+        assertThat(a).isPresent();
+        assertThat(a.get().getDuplications()).hasSize(1);
+        assertThat(b.get()).isSameAs(a.get());
+    }
+
+    @Test
+    void testDifferentConfigurationIsNotShared() throws Exception {
+        final Optional<PluginMojo> a = underTest.findPluginConfig(null, project("a", CONFIG));
+        final Optional<PluginMojo> b = underTest.findPluginConfig(null, project("b", CONFIG.replace("test-jar", "jar")));
+
+        assertThat(b.get()).isNotSameAs(a.get());
+        assertThat(b.get().getDuplications().get(0).getTargetType()).contains("jar");
+    }
+
+    @Test
+    void testCacheCleared() throws Exception {
+        final Optional<PluginMojo> a = underTest.findPluginConfig(null, project("a", CONFIG));
+
+        underTest.clearCache();
+
+        assertThat(underTest.findPluginConfig(null, project("a", CONFIG)).get()).isNotSameAs(a.get());
+    }
+
+    @Test
+    void testDependencyPatternsConfigured() throws Exception {
+        final String patterns = CONFIG.replace("<dependencyKeys><dependencyKey>org.example:.*</dependencyKey></dependencyKeys>",
+                "<dependencyPatterns><dependencyPattern>org.example</dependencyPattern></dependencyPatterns>");
+
+        final Optional<PluginMojo> result = underTest.findPluginConfig(null, project("a", patterns));
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getDuplications().get(0).getDependencyKeysAndPatterns()).containsExactly("org.example");
+    }
+
+    @Test
+    void testDuplicationWithoutKeysOrPatternsRejected() throws Exception {
+        final String empty = CONFIG.replace("<dependencyKeys><dependencyKey>org.example:.*</dependencyKey></dependencyKeys>", "");
+
+        assertThat(underTest.findPluginConfig(null, project("a", empty))).isEmpty();
+    }
+
+    @Test
+    void testConfigurationInheritedFromParent() throws Exception {
+        final MavenProject parent = project("parent", CONFIG);
+        final MavenProject child = project("child", null);
+        child.setParent(parent);
+
+        assertThat(underTest.findPluginConfiguration(child)).contains(parent.getPlugin(PluginMojo.PLUGIN_KEY).getConfiguration());
+        assertThat(underTest.findPluginConfig(null, project("other", null))).isEmpty();
+    }
+
+    private static MavenProject project(final String artifactId, final String configuration)
+            throws XmlPullParserException, IOException {
+        final Model model = new Model();
+        model.setGroupId("org.example");
+        model.setArtifactId(artifactId);
+        model.setVersion("1");
+        model.setBuild(new Build());
+        if (configuration != null) {
+            final Plugin plugin = new Plugin();
+            final String[] key = PluginMojo.PLUGIN_KEY.split(":");
+            plugin.setGroupId(key[0]);
+            plugin.setArtifactId(key[1]);
+            final Xpp3Dom dom = Xpp3DomBuilder.build(new StringReader(configuration));
+            plugin.setConfiguration(dom);
+            model.getBuild().addPlugin(plugin);
+        }
+        return new MavenProject(model);
+    }
+}
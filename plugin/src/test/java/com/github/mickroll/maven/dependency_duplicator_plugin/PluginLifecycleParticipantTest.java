@@ -0,0 +1,195 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.maven.MavenExecutionException;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.graph.DefaultProjectDependencyGraph;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.config.PluginMojo;
+
+class PluginLifecycleParticipantTest {
+
+    private static final String TEST_JARS = "<duplication>"
+            + "<dependencyKeys><dependencyKey>org\\.example:p.*</dependencyKey><dependencyKey>org\\.lib:x.*</dependencyKey></dependencyKeys>"
+            + "<targetScope>test</targetScope><targetType>test-jar</targetType><addDownstream>true</addDownstream>"
+            + "</duplication>";
+
+    private static final String SOURCES = "<duplication>"
+            + "<dependencyPatterns><dependencyPattern>org.lib:y1</dependencyPattern></dependencyPatterns>"
+            + "<targetClassifier>sources</targetClassifier><addDownstream>false</addDownstream>"
+            + "<additionalDependencies><additionalDependency>"
+            + "<groupId>org.lib</groupId><artifactId>extra</artifactId><version>1</version>"
+            + "</additionalDependency></additionalDependencies>"
+            + "</duplication>";
+
+    private static final String CONFIG_A = "<configuration><duplications>" + TEST_JARS + SOURCES + "</duplications></configuration>";
+
+    private static final String CONFIG_B = "<configuration><duplications>" + SOURCES + TEST_JARS + "</duplications></configuration>";
+
+    private DefaultPlexusContainer container;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        container = new DefaultPlexusContainer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.dispose();
+    }
+
+    @Test
+    void testParallelSameAsSequential() throws Exception {
+        final List<MavenProject> sequential = reactor();
+        afterProjectsRead(sequential, new Properties());
+
+        final List<MavenProject> parallel = reactor();
+        final Properties properties = new Properties();
+        properties.setProperty(ExtensionSettings.PARALLEL, "true");
+        properties.setProperty(ExtensionSettings.THREADS, "4");
+        afterProjectsRead(parallel, properties);
+
+        // the deepest project received the test-jars of all of its upstream projects
+        assertThat(keys(sequential.get(sequential.size() - 1))).contains("org.example:p00:test-jar:test", "org.lib:x0:test-jar:test");
+        for (int i = 0; i < sequential.size(); i++) {
+            assertThat(keys(parallel.get(i))).as(sequential.get(i).getArtifactId()).containsExactlyElementsOf(keys(sequential.get(i)));
+        }
+    }
+
+    @Test
+    void testCycleFails() throws Exception {
+        // a <- b, a receives b
+        final String config = "<configuration><duplications><duplication>"
+                + "<dependencyKeys><dependencyKey>org\\.lib:x0:.*</dependencyKey></dependencyKeys>"
+                + "<additionalDependencies><additionalDependency>"
+                + "<groupId>org.example</groupId><artifactId>b</artifactId><version>1</version>"
+                + "</additionalDependency></additionalDependencies>"
+                + "</duplication></duplications></configuration>";
+        final MavenProject a = project("a", config);
+        a.getDependencies().add(dep("org.lib", "x0"));
+        final MavenProject b = project("b", config);
+        b.getDependencies().add(dep("org.example", "a"));
+
+        assertThatThrownBy(() -> afterProjectsRead(Arrays.asList(a, b), new Properties()))
+                .isInstanceOf(MavenExecutionException.class)
+                .hasMessageContaining("cycle between the projects [org.example:a:1, org.example:b:1]");
+    }
+
+    @Test
+    void testDependenciesToScanConfiguredWithoutNewDependencies() throws Exception {
+        final String config = "<configuration><configureDependenciesToScan>true</configureDependenciesToScan><duplications>" + TEST_JARS
+                + "</duplications></configuration>";
+        final MavenProject a = project("a", config);
+        final Plugin surefire = new Plugin();
+        surefire.setGroupId("org.apache.maven.plugins");
+        surefire.setArtifactId("maven-surefire-plugin");
+        surefire.setConfiguration(Xpp3DomBuilder.build(new StringReader(
+                "<configuration><dependenciesToScan><dependency>org.example:*</dependency></dependenciesToScan></configuration>")));
+        a.getBuild().addPlugin(surefire);
+
+        afterProjectsRead(Collections.singletonList(a), new Properties());
+
+        assertThat(a.getDependencies()).isEmpty();
+        assertThat(((Xpp3Dom) surefire.getConfiguration()).getChild("dependenciesToScan")).isNull();
+    }
+
+    private void afterProjectsRead(final List<MavenProject> projects, final Properties userProperties) throws Exception {
+        final PluginConfigResolver pluginConfigResolver = new PluginConfigResolver();
+        inject(pluginConfigResolver, "container", container);
+        final DependencyGraphBuilder dependencyGraphBuilder = new DependencyGraphBuilder();
+        inject(dependencyGraphBuilder, "container", container);
+        final PluginLifecycleParticipant underTest = new PluginLifecycleParticipant();
+        inject(underTest, "pluginConfigResolver", pluginConfigResolver);
+        inject(underTest, "dependencyGraphBuilder", dependencyGraphBuilder);
+
+        final MavenExecutionRequest request = new DefaultMavenExecutionRequest()
+                .setUserProperties(userProperties)
+                .setGoals(Collections.singletonList("install"));
+        final MavenSession session = new MavenSession(container, MavenRepositorySystemUtils.newSession(), request,
+                new DefaultMavenExecutionResult());
+        session.setProjects(projects);
+        session.setAllProjects(projects);
+        session.setProjectDependencyGraph(new DefaultProjectDependencyGraph(projects));
+
+        underTest.afterProjectsRead(session);
+    }
+
+    /**
+     * Binary tree of projects, each depending on its parent node and on some external libraries. The configuration alternates.
+     */
+    private static List<MavenProject> reactor() throws Exception {
+        final List<MavenProject> result = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            final MavenProject project = project(String.format("p%02d", i), i % 2 == 0 ? CONFIG_A : CONFIG_B);
+            if (i > 0) {
+                project.getDependencies().add(dep("org.example", String.format("p%02d", (i - 1) / 2)));
+            }
+            project.getDependencies().add(dep("org.lib", "x" + i % 3));
+            project.getDependencies().add(dep("org.lib", "y" + i % 2));
+            result.add(project);
+        }
+        return result;
+    }
+
+    private static MavenProject project(final String artifactId, final String configuration) throws Exception {
+        final Model model = new Model();
+        model.setGroupId("org.example");
+        model.setArtifactId(artifactId);
+        model.setVersion("1");
+        model.setBuild(new Build());
+        final Plugin plugin = new Plugin();
+        final String[] key = PluginMojo.PLUGIN_KEY.split(":");
+        plugin.setGroupId(key[0]);
+        plugin.setArtifactId(key[1]);
+        plugin.setConfiguration(Xpp3DomBuilder.build(new StringReader(configuration)));
+        model.getBuild().addPlugin(plugin);
+        return new MavenProject(model);
+    }
+
+    private static Dependency dep(final String groupId, final String artifactId) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1");
+        return dependency;
+    }
+
+    private static List<String> keys(final MavenProject project) {
+        final List<String> result = new ArrayList<>();
+        for (final Dependency dependency : project.getDependencies()) {
+            result.add(dependency.getManagementKey() + (dependency.getScope() != null ? ":" + dependency.getScope() : ""));
+        }
+        return result;
+    }
+
+    private static void inject(final Object target, final String fieldName, final Object value) throws ReflectiveOperationException {
+        final Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
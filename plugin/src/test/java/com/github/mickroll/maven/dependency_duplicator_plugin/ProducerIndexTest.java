@@ -0,0 +1,189 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.eclipse.aether.artifact.ArtifactTypeRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.DuplicationPropagator.Contribution;
+
+class ProducerIndexTest {
+
+    private static final ArtifactTypeRegistry TYPES = MavenRepositorySystemUtils.newSession().getArtifactTypeRegistry();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMainArtifact() {
+        final ProducerIndex underTest = new ProducerIndex(TYPES, Arrays.asList(project("lib", "jar"), project("parent", "pom"),
+                project("plugin", "maven-plugin"), project("custom", "custom-packaging")));
+
+        assertThat(underTest.isProduced(key("lib", "jar", null))).isTrue();
+        assertThat(underTest.isProduced(key("lib", "pom", null))).isTrue();
+        assertThat(underTest.isProduced(key("lib", "war", null))).isFalse();
+        assertThat(underTest.isProduced(key("parent", "pom", null))).isTrue();
+        assertThat(underTest.isProduced(key("parent", "jar", null))).isFalse();
+        assertThat(underTest.isProduced(key("plugin", "jar", null))).isTrue();
+        assertThat(underTest.isProduced(key("custom", "jar", null))).isTrue();
+        assertThat(underTest.isProduced(key("external", "war", null))).isTrue();
+    }
+
+    @Test
+    void testTestJar() throws IOException {
+        final MavenProject withTests = project("with-tests", "jar");
+        withTests.addTestCompileSourceRoot(Files.createDirectories(tempDir.resolve("with-tests/src/test/java")).toString());
+        withTests.getBuild().addPlugin(plugin("maven-jar-plugin", "test-jar"));
+        final MavenProject withoutTests = project("without-tests", "jar");
+        withoutTests.addTestCompileSourceRoot(tempDir.resolve("without-tests/src/test/java").toString());
+        withoutTests.getBuild().addPlugin(plugin("maven-jar-plugin", "test-jar"));
+        final MavenProject withoutExecution = project("without-execution", "jar");
+        withoutExecution.addTestCompileSourceRoot(Files.createDirectories(tempDir.resolve("without-execution/src/test/java")).toString());
+
+        final ProducerIndex underTest = new ProducerIndex(TYPES, Arrays.asList(withTests, withoutTests, withoutExecution));
+
+        assertThat(underTest.isProduced(key("with-tests", "test-jar", null))).isTrue();
+        assertThat(underTest.isProduced(key("with-tests", "jar", "tests"))).isTrue();
+        assertThat(underTest.isProduced(key("without-tests", "test-jar", null))).isFalse();
+        assertThat(underTest.isProduced(key("without-execution", "test-jar", null))).isFalse();
+        assertThat(underTest.isProduced(key("without-execution", "jar", "tests"))).isFalse();
+    }
+
+    @Test
+    void testTestJarWithGeneratedTests() {
+        final MavenProject boundToPhase = project("bound-to-phase", "jar");
+        boundToPhase.getBuild().addPlugin(plugin("maven-jar-plugin", "test-jar"));
+        final Plugin generator = plugin("some-generator-plugin", "generate");
+        generator.getExecutions().get(0).setId("generate-test-model");
+        generator.getExecutions().get(0).setPhase("generate-test-sources");
+        boundToPhase.getBuild().addPlugin(generator);
+        final MavenProject namedGoal = project("named-goal", "jar");
+        namedGoal.getBuild().addPlugin(plugin("maven-jar-plugin", "test-jar"));
+        final Plugin addTestSource = plugin("some-helper-plugin", "add-test-source");
+        addTestSource.getExecutions().get(0).setId("add-generated");
+        namedGoal.getBuild().addPlugin(addTestSource);
+        final MavenProject lifecycleOnly = project("lifecycle-only", "jar");
+        lifecycleOnly.getBuild().addPlugin(plugin("maven-jar-plugin", "test-jar"));
+        // injected by the default lifecycle bindings
+        final Plugin resources = plugin("maven-resources-plugin", "testResources");
+        resources.getExecutions().get(0).setPhase("process-test-resources");
+        lifecycleOnly.getBuild().addPlugin(resources);
+
+        final ProducerIndex underTest = new ProducerIndex(TYPES, Arrays.asList(boundToPhase, namedGoal, lifecycleOnly));
+
+        assertThat(underTest.isProduced(key("bound-to-phase", "test-jar", null))).isTrue();
+        assertThat(underTest.isProduced(key("named-goal", "test-jar", null))).isTrue();
+        assertThat(underTest.isProduced(key("lifecycle-only", "test-jar", null))).isFalse();
+    }
+
+    @Test
+    void testClassifiers() {
+        final MavenProject lib = project("lib", "jar");
+        lib.getBuild().addPlugin(plugin("maven-source-plugin", "jar-no-fork"));
+        final Plugin jarPlugin = plugin("maven-jar-plugin", "jar");
+        final Xpp3Dom configuration = new Xpp3Dom("configuration");
+        final Xpp3Dom classifier = new Xpp3Dom("classifier");
+        classifier.setValue("api");
+        configuration.addChild(classifier);
+        jarPlugin.getExecutions().get(0).setConfiguration(configuration);
+        lib.getBuild().addPlugin(jarPlugin);
+
+        final ProducerIndex underTest = new ProducerIndex(TYPES, Collections.singletonList(lib));
+
+        assertThat(underTest.isProduced(key("lib", "jar", "sources"))).isTrue();
+        assertThat(underTest.isProduced(key("lib", "java-source", null))).isTrue();
+        assertThat(underTest.isProduced(key("lib", "jar", "api"))).isTrue();
+        assertThat(underTest.isProduced(key("lib", "jar", "javadoc"))).isFalse();
+        assertThat(underTest.isProduced(key("lib", "jar", "test-sources"))).isFalse();
+        // not judged
+        assertThat(underTest.isProduced(key("lib", "jar", "other"))).isTrue();
+        assertThat(underTest.isProduced(key("lib", "zip", "bin"))).isTrue();
+    }
+
+    @Test
+    void testAttachingPluginsAttachAnything() {
+        final MavenProject lib = project("lib", "pom");
+        lib.getBuild().addPlugin(plugin("build-helper-maven-plugin", "attach-artifact"));
+
+        final ProducerIndex underTest = new ProducerIndex(TYPES, Collections.singletonList(lib));
+
+        assertThat(underTest.isProduced(key("lib", "test-jar", null))).isTrue();
+        assertThat(underTest.isProduced(key("lib", "jar", null))).isTrue();
+        assertThat(underTest.describe(lib)).isEqualTo("*");
+    }
+
+    @Test
+    void testRetain() {
+        final ProducerIndex underTest = new ProducerIndex(TYPES, Arrays.asList(project("lib", "jar"), project("app", "jar")));
+        final PlannedDependency testJar = PlannedDependency.of(dep("lib", "test-jar", null));
+        final PlannedDependency external = PlannedDependency.of(dep("external", "jar", null));
+        final PlannedDependency appTestJar = PlannedDependency.of(dep("app", "test-jar", null));
+
+        final Optional<Contribution> partial = underTest.retain(project("app", "jar"),
+                new Contribution(Arrays.asList(testJar, external), true, "[rule1]"));
+        final Optional<Contribution> none = underTest.retain(project("app", "jar"),
+                new Contribution(Collections.singletonList(testJar), false, "[rule1]"));
+        final Contribution all = new Contribution(Collections.singletonList(external), true, "[rule2]");
+        underTest.retain(project("other", "jar"), new Contribution(Collections.singletonList(appTestJar), true, "[rule2]"));
+
+        assertThat(partial).isPresent();
+        assertThat(partial.get().dependencies).containsExactly(external);
+        assertThat(partial.get().addDownstream).isTrue();
+        assertThat(partial.get().rule).isEqualTo("[rule1]");
+        assertThat(none).isEmpty();
+        assertThat(underTest.retain(project("app", "jar"), all)).containsSame(all);
+        assertThat(underTest.getSkippedCount()).isEqualTo(3);
+        assertThat(underTest.formatReport()).containsExactly(
+                "[rule1]:",
+                "  org.example:lib:test-jar:1 (2 projects)",
+                "[rule2]:",
+                "  org.example:app:test-jar:1 (1 project)");
+    }
+
+    private static DependencyKey key(final String artifactId, final String type, final String classifier) {
+        return DependencyKey.of(dep(artifactId, type, classifier));
+    }
+
+    private static Dependency dep(final String artifactId, final String type, final String classifier) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId("org.example");
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1");
+        dependency.setType(type);
+        dependency.setClassifier(classifier);
+        return dependency;
+    }
+
+    private static Plugin plugin(final String artifactId, final String goal) {
+        final PluginExecution execution = new PluginExecution();
+        execution.setId("default-" + goal);
+        execution.addGoal(goal);
+        final Plugin plugin = new Plugin();
+        plugin.setArtifactId(artifactId);
+        plugin.addExecution(execution);
+        return plugin;
+    }
+
+    private static MavenProject project(final String artifactId, final String packaging) {
+        final MavenProject project = new MavenProject();
+        project.setGroupId("org.example");
+        project.setArtifactId(artifactId);
+        project.setVersion("1");
+        project.setPackaging(packaging);
+        return project;
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+class ReachableScopesTest {
+
+    @Test
+    void testTestPhases() {
+        assertAll(ReachableScopes.of(Arrays.asList("clean", "install"), settings()));
+        assertAll(ReachableScopes.of(Collections.singletonList("test-compile"), settings()));
+        assertAll(ReachableScopes.of(Collections.singletonList("generate-test-sources"), settings()));
+    }
+
+    @Test
+    void testMainPhases() {
+        assertMain(ReachableScopes.of(Arrays.asList("clean", "compile"), settings()));
+        assertMain(ReachableScopes.of(Collections.singletonList("validate"), settings()));
+        assertMain(ReachableScopes.of(Collections.singletonList("process-resources"), settings()));
+    }
+
+    @Test
+    void testTestsSkipped() {
+        assertMain(ReachableScopes.of(Collections.singletonList("install"), settings("maven.test.skip", "true")));
+        assertAll(ReachableScopes.of(Collections.singletonList("install"), settings("maven.test.skip", "false")));
+        // tests are still compiled
+        assertAll(ReachableScopes.of(Collections.singletonList("verify"), settings("skipTests", "")));
+        assertAll(ReachableScopes.of(Collections.singletonList("verify"), settings("skipTests", "true")));
+    }
+
+    @Test
+    void testCleanOnly() {
+        final ReachableScopes result = ReachableScopes.of(Arrays.asList("pre-clean", "clean"), settings());
+
+        assertThat(result.isNone()).isTrue();
+        assertThat(result.isReachable(null)).isFalse();
+        assertThat(result.isReachable("test")).isFalse();
+    }
+
+    @Test
+    void testUnknownGoals() {
+        assertAll(ReachableScopes.of(Collections.emptyList(), settings()));
+        assertAll(ReachableScopes.of(Arrays.asList("compile", "dependency:tree"), settings()));
+        assertAll(ReachableScopes.of(Arrays.asList("clean", "site"), settings()));
+        assertAll(ReachableScopes.of(Arrays.asList("org.apache.maven.plugins:maven-surefire-plugin:test"), settings("skipTests", "true")));
+    }
+
+    @Test
+    void testLifecycleAwareDisabledByDefault() {
+        final ExtensionSettings settings = new ExtensionSettings(new Properties(), new Properties(), 1);
+
+        assertAll(ReachableScopes.of(Collections.singletonList("validate"), settings));
+        assertAll(ReachableScopes.of(Collections.singletonList("clean"), settings));
+    }
+
+    @Test
+    void testLifecycleAwareDisabled() {
+        assertAll(ReachableScopes.of(Collections.singletonList("compile"), settings(ReachableScopes.LIFECYCLE_AWARE, "false")));
+        assertAll(ReachableScopes.of(Collections.singletonList("clean"), settings(ReachableScopes.LIFECYCLE_AWARE, "false")));
+    }
+
+    private static void assertAll(final ReachableScopes scopes) {
+        assertThat(scopes.isAll()).isTrue();
+        assertThat(scopes.isReachable("test")).isTrue();
+    }
+
+    private static void assertMain(final ReachableScopes scopes) {
+        assertThat(scopes.isAll()).isFalse();
+        assertThat(scopes.isNone()).isFalse();
+        assertThat(scopes.isReachable("test")).isFalse();
+        assertThat(scopes.isReachable(null)).isTrue();
+        assertThat(scopes.isReachable("compile")).isTrue();
+        assertThat(scopes.isReachable("provided")).isTrue();
+        assertThat(scopes.isReachable("runtime")).isTrue();
+    }
+
+    private static ExtensionSettings settings(final String... keysAndValues) {
+        final Properties userProperties = new Properties();
+        userProperties.setProperty(ReachableScopes.LIFECYCLE_AWARE, "true");
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            userProperties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return new ExtensionSettings(userProperties, new Properties(), 1);
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.DuplicationPropagator.Contribution;
+import com.github.mickroll.maven.dependency_duplicator_plugin.config.PluginMojo;
+
+class ResidentCacheTest {
+
+    private final ResidentCache underTest = new ResidentCache();
+    private final PluginMojo config = new PluginMojo();
+    private final List<Contribution> contributions = Collections.singletonList(new Contribution(Collections.emptyList(), true, null));
+    private MavenProject parent;
+    private MavenProject project;
+
+    @BeforeEach
+    void setUp() {
+        parent = project("parent", null);
+        project = project("child", parent);
+        assertThat(underTest.configure(settings(ResidentCache.ENABLED, "true"))).isTrue();
+    }
+
+    @Test
+    void testHit() {
+        underTest.put(project, config, false, contributions);
+
+        assertThat(underTest.get(project, config, false)).containsSame(contributions);
+    }
+
+    @Test
+    void testMissOnOtherInputs() {
+        underTest.put(project, config, false, contributions);
+
+        assertThat(underTest.get(project, new PluginMojo(), false)).isEmpty();
+        assertThat(underTest.get(project, config, true)).isEmpty();
+        assertThat(underTest.get(parent, config, false)).isEmpty();
+    }
+
+    @Test
+    void testMissOnChangedDependency() {
+        underTest.put(project, config, false, contributions);
+
+        project.getDependencies().get(0).setVersion("2");
+
+        assertThat(underTest.get(project, config, false)).isEmpty();
+    }
+
+    @Test
+    void testMissOnAddedDependency() {
+        underTest.put(project, config, false, contributions);
+
+        project.getDependencies().add(dependency("lib2"));
+
+        assertThat(underTest.get(project, config, false)).isEmpty();
+    }
+
+    @Test
+    void testHitOnNewModelWithSameDependencies() {
+        underTest.put(project, config, false, contributions);
+
+        // next build of the daemon reads the project again
+        final MavenProject reread = project("child", parent);
+
+        assertThat(underTest.get(reread, config, false)).containsSame(contributions);
+    }
+
+    @Test
+    void testDisabledClears() {
+        underTest.put(project, config, false, contributions);
+
+        assertThat(underTest.configure(settings(ResidentCache.ENABLED, "false"))).isFalse();
+
+        assertThat(underTest.size()).isZero();
+    }
+
+    @Test
+    void testBoundedSize() {
+        underTest.configure(settings(ResidentCache.SIZE, "1", ResidentCache.ENABLED, "true"));
+        underTest.put(parent, config, false, contributions);
+        underTest.put(project, config, false, contributions);
+
+        assertThat(underTest.size()).isEqualTo(1);
+        assertThat(underTest.get(project, config, false)).isPresent();
+        assertThat(underTest.get(parent, config, false)).isEmpty();
+    }
+
+    private static MavenProject project(final String artifactId, final MavenProject parentProject) {
+        final MavenProject result = new MavenProject();
+        result.setGroupId("org.example");
+        result.setArtifactId(artifactId);
+        result.setVersion("1");
+        result.setParent(parentProject);
+        result.getDependencies().add(dependency("lib"));
+        return result;
+    }
+
+    private static Dependency dependency(final String artifactId) {
+        final Dependency result = new Dependency();
+        result.setGroupId("org.example");
+        result.setArtifactId(artifactId);
+        result.setVersion("1");
+        return result;
+    }
+
+    private static ExtensionSettings settings(final String... keysAndValues) {
+        final Properties userProperties = new Properties();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            userProperties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return new ExtensionSettings(userProperties, new Properties(), 1);
+    }
+}
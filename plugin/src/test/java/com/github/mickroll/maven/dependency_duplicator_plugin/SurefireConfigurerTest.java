@@ -0,0 +1,132 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.junit.jupiter.api.Test;
+
+class SurefireConfigurerTest {
+
+    @Test
+    void testDependenciesToScan() {
+        final List<String> result = SurefireConfigurer.dependenciesToScan(Arrays.asList(
+                dep("lib", "test-jar", null),
+                dep("lib", "test-jar", null),
+                dep("other", "jar", "tests"),
+                dep("api", "jar", null),
+                dep("api", "jar", "sources")));
+
+        assertThat(result).containsExactly("org.example:lib:test-jar:tests", "org.example:other:jar:tests");
+    }
+
+    @Test
+    void testConfigure() {
+        final Xpp3Dom original = config("<configuration><dependenciesToScan><dependency>org.example:*</dependency></dependenciesToScan>"
+                + "<includes><include>**/*Test.java</include></includes><skip>false</skip></configuration>");
+        final MavenProject project = project(original);
+
+        final List<String> result = SurefireConfigurer.configure(project, Arrays.asList(dep("lib", "test-jar", null)),
+                Arrays.asList("**/*IT.java"));
+
+        assertThat(result).containsExactly("org.example:lib:test-jar:tests");
+        final Plugin surefire = project.getBuild().getPluginsAsMap().get(SurefireConfigurer.SUREFIRE_KEY);
+        for (final Object configuration : Arrays.asList(surefire.getConfiguration(), surefire.getExecutions().get(0).getConfiguration())) {
+            final Xpp3Dom dom = (Xpp3Dom) configuration;
+            assertThat(dom.getChildren("dependenciesToScan")).hasSize(1);
+            assertThat(values(dom.getChild("dependenciesToScan"))).containsExactly("org.example:lib:test-jar:tests");
+            assertThat(dom.getChildren("includes")).hasSize(1);
+            assertThat(values(dom.getChild("includes"))).containsExactly("**/*IT.java");
+            assertThat(dom.getChild("skip").getValue()).isEqualTo("false");
+        }
+        assertThat(values(original.getChild("dependenciesToScan"))).containsExactly("org.example:*");
+        assertThat(values(original.getChild("includes"))).containsExactly("**/*Test.java");
+    }
+
+    @Test
+    void testConfigureWithoutTestArtifacts() {
+        final MavenProject project = project(
+                config("<configuration><dependenciesToScan><dependency>org.example:*</dependency></dependenciesToScan>"
+                        + "<includes><include>**/*Test.java</include></includes></configuration>"));
+
+        final List<String> result = SurefireConfigurer.configure(project, Arrays.asList(dep("api", "jar", null)), Arrays.asList("**/*IT.java"));
+
+        assertThat(result).isEmpty();
+        final Xpp3Dom dom = (Xpp3Dom) project.getBuild().getPluginsAsMap().get(SurefireConfigurer.SUREFIRE_KEY).getConfiguration();
+        assertThat(dom.getChild("dependenciesToScan")).isNull();
+        assertThat(values(dom.getChild("includes"))).containsExactly("**/*Test.java");
+    }
+
+    @Test
+    void testConfigureWithoutConfiguration() {
+        assertThat(SurefireConfigurer.configure((Xpp3Dom) null, Collections.emptyList(), Collections.emptyList())).isNull();
+
+        final Xpp3Dom result = SurefireConfigurer.configure((Xpp3Dom) null, Arrays.asList("org.example:lib:test-jar:tests"), Collections.emptyList());
+
+        assertThat(values(result.getChild("dependenciesToScan"))).containsExactly("org.example:lib:test-jar:tests");
+        assertThat(result.getChild("includes")).isNull();
+    }
+
+    @Test
+    void testConfigureWithoutSurefire() {
+        final MavenProject project = new MavenProject();
+        project.setBuild(new Build());
+
+        assertThat(SurefireConfigurer.configure(project, Arrays.asList(dep("lib", "test-jar", null)), Collections.emptyList())).isEmpty();
+        assertThat(project.getBuild().getPlugins()).isEmpty();
+    }
+
+    private static MavenProject project(final Xpp3Dom configuration) {
+        final Plugin surefire = new Plugin();
+        surefire.setGroupId("org.apache.maven.plugins");
+        surefire.setArtifactId("maven-surefire-plugin");
+        surefire.setConfiguration(configuration);
+        final PluginExecution execution = new PluginExecution();
+        execution.setId("default-test");
+        execution.setConfiguration(configuration);
+        surefire.addExecution(execution);
+        final MavenProject project = new MavenProject();
+        project.setBuild(new Build());
+        project.getBuild().addPlugin(surefire);
+        return project;
+    }
+
+    private static Xpp3Dom config(final String xml) {
+        try {
+            return Xpp3DomBuilder.build(new StringReader(xml));
+        } catch (XmlPullParserException | IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String[] values(final Xpp3Dom list) {
+        final Xpp3Dom[] children = list.getChildren();
+        final String[] result = new String[children.length];
+        for (int i = 0; i < children.length; i++) {
+            result[i] = children[i].getValue();
+        }
+        return result;
+    }
+
+    private static Dependency dep(final String artifactId, final String type, final String classifier) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId("org.example");
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1");
+        dependency.setType(type);
+        dependency.setClassifier(classifier);
+        return dependency;
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.graph.Exclusion;
+import org.eclipse.aether.resolution.ArtifactDescriptorException;
+import org.eclipse.aether.resolution.ArtifactDescriptorRequest;
+import org.eclipse.aether.resolution.ArtifactDescriptorResult;
+import org.junit.jupiter.api.Test;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionMetrics.Counter;
+
+class TransitiveDependencyCollectorTest {
+
+    private final Map<String, List<org.eclipse.aether.graph.Dependency>> descriptors = new HashMap<>();
+    private final Map<String, AtomicInteger> reads = new ConcurrentHashMap<>();
+    private final ExtensionMetrics metrics = new ExtensionMetrics();
+
+    // app -> lib (reactor) -> ext:b, app -> ext:a -> ext:b, ext:c (runtime), ext:d (excluding ext:e) -> ext:e, ext:f
+    private final MavenProject lib = project("lib", dep("org.example", "ext-b", null), dep("junit", "junit", "test"));
+    private final MavenProject app = project("app", dep("org.example", "lib", null), dep("org.example", "ext-a", null));
+    private final MavenProject app2 = project("app2", dep("org.example", "ext-a", "test"), dep("org.example", "missing", null));
+
+    {
+        descriptors.put("ext-a", Arrays.asList(
+                aetherDep("ext-b", "compile", false),
+                aetherDep("ext-c", "runtime", false),
+                aetherDep("ext-optional", "compile", true),
+                aetherDep("ext-d", "compile", false, new Exclusion("org.example", "ext-e", "*", "*"))));
+        descriptors.put("ext-b", Collections.emptyList());
+        descriptors.put("ext-c", Collections.emptyList());
+        descriptors.put("ext-d", Arrays.asList(aetherDep("ext-e", "compile", false), aetherDep("ext-f", "compile", false)));
+        descriptors.put("ext-f", Collections.emptyList());
+    }
+
+    @Test
+    void testCollect() {
+        try (TransitiveDependencyCollector underTest = collector()) {
+            final List<Dependency> result = underTest.collect(app);
+
+            assertThat(keys(result)).containsExactly(
+                    "org.example:ext-b:jar:compile",
+                    "org.example:ext-c:jar:runtime",
+                    "org.example:ext-d:jar:compile",
+                    "org.example:ext-f:jar:compile");
+        }
+    }
+
+    @Test
+    void testScopeOfDeclaredDependencyApplies() {
+        try (TransitiveDependencyCollector underTest = collector()) {
+            assertThat(keys(underTest.collect(app2))).containsExactly(
+                    "org.example:ext-b:jar:test",
+                    "org.example:ext-c:jar:test",
+                    "org.example:ext-d:jar:test",
+                    "org.example:ext-f:jar:test");
+        }
+    }
+
+    @Test
+    void testDescriptorsAreReadOnce() {
+        try (TransitiveDependencyCollector underTest = collector()) {
+            underTest.collect(app);
+            underTest.collect(app2);
+            underTest.collect(app);
+        }
+
+        assertThat(reads).allSatisfy((artifact, count) -> assertThat(count.get()).as(artifact).isEqualTo(1));
+        assertThat(reads).containsOnlyKeys("ext-a", "ext-b", "ext-c", "ext-d", "ext-f", "missing");
+        assertThat(metrics.get(Counter.ARTIFACT_DESCRIPTORS_READ)).isEqualTo(5);
+    }
+
+    @Test
+    void testTransitiveScope() {
+        assertThat(TransitiveDependencyCollector.transitiveScope(null, "compile")).isEqualTo("compile");
+        assertThat(TransitiveDependencyCollector.transitiveScope("compile", "runtime")).isEqualTo("runtime");
+        assertThat(TransitiveDependencyCollector.transitiveScope("test", "runtime")).isEqualTo("test");
+        assertThat(TransitiveDependencyCollector.transitiveScope("provided", null)).isEqualTo("provided");
+        assertThat(TransitiveDependencyCollector.transitiveScope("compile", "test")).isNull();
+        assertThat(TransitiveDependencyCollector.transitiveScope("compile", "provided")).isNull();
+    }
+
+    private TransitiveDependencyCollector collector() {
+        return new TransitiveDependencyCollector(repositorySystem(), null, Arrays.asList(lib, app, app2), 2, metrics);
+    }
+
+    private RepositorySystem repositorySystem() {
+        return (RepositorySystem) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { RepositorySystem.class },
+                (proxy, method, args) -> {
+                    if (!"readArtifactDescriptor".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    final ArtifactDescriptorRequest request = (ArtifactDescriptorRequest) args[1];
+                    final String artifactId = request.getArtifact().getArtifactId();
+                    reads.computeIfAbsent(artifactId, a -> new AtomicInteger()).incrementAndGet();
+                    final ArtifactDescriptorResult result = new ArtifactDescriptorResult(request);
+                    if (!descriptors.containsKey(artifactId)) {
+                        throw new ArtifactDescriptorException(result, "not found: " + artifactId);
+                    }
+                    result.setDependencies(descriptors.get(artifactId));
+                    return result;
+                });
+    }
+
+    private static List<String> keys(final List<Dependency> dependencies) {
+        final List<String> result = new ArrayList<>();
+        dependencies.forEach(d -> result.add(d.getManagementKey() + ":" + d.getScope()));
+        return result;
+    }
+
+    private static MavenProject project(final String artifactId, final Dependency... dependencies) {
+        final MavenProject project = new MavenProject();
+        project.setGroupId("org.example");
+        project.setArtifactId(artifactId);
+        project.setVersion("1");
+        project.getDependencies().addAll(Arrays.asList(dependencies));
+        return project;
+    }
+
+    private static Dependency dep(final String groupId, final String artifactId, final String scope) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1");
+        dependency.setScope(scope);
+        return dependency;
+    }
+
+    private static org.eclipse.aether.graph.Dependency aetherDep(final String artifactId, final String scope, final boolean optional,
+            final Exclusion... exclusions) {
+        return new org.eclipse.aether.graph.Dependency(new DefaultArtifact("org.example", artifactId, "jar", "1"), scope, optional,
+                Arrays.asList(exclusions));
+    }
+}
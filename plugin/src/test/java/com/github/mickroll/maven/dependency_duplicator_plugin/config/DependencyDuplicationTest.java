@@ -7,6 +7,9 @@ import java.util.Arrays;
 import org.apache.maven.model.Dependency;
 import org.junit.jupiter.api.Test;
 
+import com.github.mickroll.maven.dependency_duplicator_plugin.DependencyKey;
+import com.github.mickroll.maven.dependency_duplicator_plugin.PlannedDependency;
+
 class DependencyDuplicationTest {
 
     private static final Dependency EXAMPLE_SOMEARTIFACT;
@@ -174,6 +177,36 @@ class DependencyDuplicationTest {
         assertThat(clone.getScope()).isEqualTo(dependency.getScope());
     }
 
+    @Test
+    void testPlanDuplicateHasKeyOfDuplicate() {
+        final Dependency dependency = dep("org.example", "someartifact", "jar", null, "compile");
+        final DependencyDuplication[] configs = { dupl(null, null, null), dupl("test", "test-jar", null), dupl(null, null, "tests") };
+
+        for (final DependencyDuplication underTest : configs) {
+            final PlannedDependency planned = underTest.planDuplicate(dependency);
+
+            assertThat(planned.getKey()).as(underTest.toString()).isEqualTo(DependencyKey.of(underTest.doDuplicate(dependency)));
+        }
+    }
+
+    @Test
+    void testHasDependencyKeysOrPatterns() {
+        final DependencyDuplication patternsOnly = new DependencyDuplication();
+        patternsOnly.dependencyPatterns = Arrays.asList("org.example");
+
+        assertThat(dupl("org\\.example:.*").hasDependencyKeysOrPatterns()).isTrue();
+        assertThat(patternsOnly.hasDependencyKeysOrPatterns()).isTrue();
+        assertThat(new DependencyDuplication().hasDependencyKeysOrPatterns()).isFalse();
+    }
+
+    @Test
+    void testToStringWithoutDependencyKeys() {
+        final DependencyDuplication underTest = dupl("test", null, null);
+        underTest.dependencyPatterns = Arrays.asList("org.example");
+
+        assertThat(underTest).hasToString("{dependencyPatterns=[org.example], targetScope=test, addDownstream=false}");
+    }
+
     private static DependencyDuplication dupl(final String... sourceRegEx) {
         final DependencyDuplication result = new DependencyDuplication();
         result.dependencyKeys = Arrays.asList(sourceRegEx);
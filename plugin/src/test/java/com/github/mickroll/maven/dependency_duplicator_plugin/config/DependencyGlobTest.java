@@ -0,0 +1,63 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class DependencyGlobTest {
+
+    @Test
+    void testLiteral() {
+        assertThat(matches("org.example:someartifact:jar", "org.example:someartifact:jar")).isTrue();
+        assertThat(matches("org.example:someartifact:jar", "org.example:someartifact:pom")).isFalse();
+        // unlike in a regEx, '.' is no wildcard
+        assertThat(matches("org.example:someartifact:jar", "orgxexample:someartifact:jar")).isFalse();
+    }
+
+    @Test
+    void testOmittedPartsMatchAnything() {
+        assertThat(matches("org.example", "org.example:someartifact:jar")).isTrue();
+        assertThat(matches("org.example:someartifact", "org.example:someartifact:test-jar:tests")).isTrue();
+        assertThat(matches("org.example::jar", "org.example:someartifact:jar")).isTrue();
+        assertThat(matches("org.example:someartifact:jar", "org.example:someartifact:jar:tests")).isTrue();
+    }
+
+    @Test
+    void testClassifier() {
+        assertThat(matches("org.example:someartifact:jar:tests", "org.example:someartifact:jar:tests")).isTrue();
+        assertThat(matches("org.example:someartifact:jar:tests", "org.example:someartifact:jar")).isFalse();
+        assertThat(matches("org.example:someartifact:jar:*", "org.example:someartifact:jar")).isTrue();
+    }
+
+    @Test
+    void testWildcards() {
+        assertThat(matches("org.example:some*:jar", "org.example:someartifact:jar")).isTrue();
+        assertThat(matches("org.example:some*:jar", "org.example:otherartifact:jar")).isFalse();
+        assertThat(matches("org.example:*artifact*:*", "org.example:someartifact-api:test-jar")).isTrue();
+        assertThat(matches("org.example:module-?:jar", "org.example:module-1:jar")).isTrue();
+        assertThat(matches("org.example:module-?:jar", "org.example:module-12:jar")).isFalse();
+    }
+
+    @Test
+    void testGroupSegments() {
+        assertThat(matches("org.*:a", "org.example:a:jar")).isTrue();
+        assertThat(matches("org.*:a", "org.example.sub:a:jar")).isTrue();
+        assertThat(matches("org.*:a", "org:a:jar")).isFalse();
+        assertThat(matches("*:a", "org.example.sub:a:jar")).isTrue();
+        // wildcards inside a segment do not cross '.'
+        assertThat(matches("org.ex*:a", "org.example:a:jar")).isTrue();
+        assertThat(matches("org.ex*:a", "org.example.sub:a:jar")).isFalse();
+        assertThat(matches("org.*.sub:a", "org.example.sub:a:jar")).isTrue();
+    }
+
+    @Test
+    void testInvalid() {
+        assertThatThrownBy(() -> new DependencyGlob("a:b:c:d:e")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DependencyGlob(" ")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static boolean matches(final String pattern, final String managementKey) {
+        return new DependencyGlob(pattern).matches(managementKey);
+    }
+}
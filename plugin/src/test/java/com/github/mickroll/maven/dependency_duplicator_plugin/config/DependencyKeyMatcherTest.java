@@ -0,0 +1,53 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class DependencyKeyMatcherTest {
+
+    @Test
+    void testLiteralPrefix_Plain() {
+        assertThat(DependencyKeyMatcher.literalPrefix("org:example:jar")).isEqualTo("org:example:jar");
+    }
+
+    @Test
+    void testLiteralPrefix_StopsAtDot() {
+        assertThat(DependencyKeyMatcher.literalPrefix("org.example:sub-.*:jar")).isEqualTo("org");
+    }
+
+    @Test
+    void testLiteralPrefix_EscapedDot() {
+        assertThat(DependencyKeyMatcher.literalPrefix("org\\.example:sub-.*:jar")).isEqualTo("org.example:sub-");
+    }
+
+    @Test
+    void testLiteralPrefix_Quantifier() {
+        assertThat(DependencyKeyMatcher.literalPrefix("orgx?:.*")).isEqualTo("org");
+        assertThat(DependencyKeyMatcher.literalPrefix("orgx*:.*")).isEqualTo("org");
+        assertThat(DependencyKeyMatcher.literalPrefix("orgx{0,1}:.*")).isEqualTo("org");
+    }
+
+    @Test
+    void testLiteralPrefix_Alternation() {
+        assertThat(DependencyKeyMatcher.literalPrefix("org:a:jar|com:b:jar")).isEmpty();
+    }
+
+    @Test
+    void testLiteralPrefix_CharacterClass() {
+        assertThat(DependencyKeyMatcher.literalPrefix("org\\d:.*")).isEqualTo("org");
+        assertThat(DependencyKeyMatcher.literalPrefix("(?i)org:.*")).isEmpty();
+    }
+
+    @Test
+    void testMatchesLikeStringMatches() {
+        final String[] patterns = { "org.example:.*", "org\\.example:some.*:jar", "orgx?.example:.*", "org.example:(some|other)artifact:jar" };
+        final String[] keys = { "org.example:someartifact:jar", "orgxexample:someartifact:jar", "org.example:otherartifact:jar", "com.example:a:jar" };
+        for (final String pattern : patterns) {
+            final DependencyKeyMatcher matcher = new DependencyKeyMatcher(pattern);
+            for (final String key : keys) {
+                assertThat(matcher.matches(key)).as(pattern + " / " + key).isEqualTo(key.matches(pattern));
+            }
+        }
+    }
+}
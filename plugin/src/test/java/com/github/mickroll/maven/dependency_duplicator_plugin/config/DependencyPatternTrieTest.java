@@ -0,0 +1,104 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.maven.model.Dependency;
+import org.junit.jupiter.api.Test;
+
+class DependencyPatternTrieTest {
+
+    private static final List<String> KEYS = Arrays.asList(
+            "org.example:a:jar",
+            "org.example:a:jar:tests",
+            "org.example:b:pom",
+            "org.example.sub:a:jar",
+            "org.example.sub.deep:c:jar",
+            "org.other:a:jar",
+            "com.acme:x-api:jar",
+            "com.acme.tools:x-impl:test-jar:tests",
+            "org:a:jar");
+
+    @Test
+    void testFirstRuleWins() {
+        final DependencyPatternTrie underTest = new DependencyPatternTrie(Arrays.asList(
+                rule("org.example:b"),
+                rule("org.*:a:jar"),
+                rule("org.example:a", "com.acme.*"),
+                rule("*")));
+
+        assertThat(underTest.findFirstRule("org.example:b:pom")).isZero();
+        assertThat(underTest.findFirstRule("org.example:a:jar")).isEqualTo(1);
+        assertThat(underTest.findFirstRule("org.example:a:jar:tests")).isEqualTo(1);
+        assertThat(underTest.findFirstRule("org.example:a:pom")).isEqualTo(2);
+        assertThat(underTest.findFirstRule("com.acme.tools:x-impl:test-jar:tests")).isEqualTo(2);
+        assertThat(underTest.findFirstRule("com.acme:x-api:jar")).isEqualTo(3);
+    }
+
+    @Test
+    void testNoMatch() {
+        final DependencyPatternTrie underTest = new DependencyPatternTrie(Arrays.asList(rule("org.example:b"), rule("org.*:a:jar:tests")));
+
+        assertThat(underTest.findFirstRule("org.example:a:jar")).isEqualTo(DependencyPatternTrie.NO_MATCH);
+        assertThat(underTest.findFirstRule("org:a:jar:tests")).isEqualTo(DependencyPatternTrie.NO_MATCH);
+        assertThat(underTest.findFirstRule("invalid")).isEqualTo(DependencyPatternTrie.NO_MATCH);
+    }
+
+    @Test
+    void testSameAsMatchingEachRule() {
+        final List<DependencyDuplication> rules = Arrays.asList(
+                rule("org.example.*:?"),
+                rule("org.ex*:a:jar:*"),
+                rule("org.example:*:pom", "com.acme:x-*"),
+                rule("*:a"),
+                rule("org.example.sub.deep:c:jar"),
+                rule("com.*:x-impl:*:tests"));
+        final DependencyPatternTrie underTest = new DependencyPatternTrie(rules);
+
+        for (final String key : KEYS) {
+            int expected = DependencyPatternTrie.NO_MATCH;
+            for (int rule = 0; rule < rules.size() && expected == DependencyPatternTrie.NO_MATCH; rule++) {
+                for (final DependencyGlob pattern : rules.get(rule).getPatterns()) {
+                    if (pattern.matches(key)) {
+                        expected = rule;
+                    }
+                }
+            }
+            assertThat(underTest.findFirstRule(key)).as(key).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void testMixedWithRegExInPluginMojo() {
+        final DependencyDuplication regExRule = new DependencyDuplication();
+        regExRule.dependencyKeys = Arrays.asList("org\\.example:b:.*");
+        final DependencyDuplication patternRule = rule("org.example");
+        final DependencyDuplication laterRegExRule = new DependencyDuplication();
+        laterRegExRule.dependencyKeys = Arrays.asList("org\\.example:a:jar");
+        final PluginMojo mojo = new PluginMojo();
+        mojo.duplications = new ArrayList<>(Arrays.asList(regExRule, patternRule, laterRegExRule, rule("org.other")));
+
+        assertThat(mojo.findFirstDuplicationConfig(dependency("org.example", "b"))).contains(regExRule);
+        assertThat(mojo.findFirstDuplicationConfig(dependency("org.example", "a"))).contains(patternRule);
+        assertThat(mojo.findFirstDuplicationConfig(dependency("org.other", "a"))).contains(mojo.duplications.get(3));
+        assertThat(mojo.findFirstDuplicationConfig(dependency("org.unknown", "a"))).isEqualTo(Optional.empty());
+    }
+
+    private static DependencyDuplication rule(final String... patterns) {
+        final DependencyDuplication result = new DependencyDuplication();
+        result.dependencyPatterns = Arrays.asList(patterns);
+        return result;
+    }
+
+    private static Dependency dependency(final String groupId, final String artifactId) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setType("jar");
+        return dependency;
+    }
+}
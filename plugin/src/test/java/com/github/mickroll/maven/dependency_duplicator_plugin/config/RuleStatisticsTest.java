@@ -0,0 +1,128 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.maven.model.Dependency;
+import org.junit.jupiter.api.Test;
+
+class RuleStatisticsTest {
+
+    private final DependencyDuplication ruleA = rule("org\\.example:a.*:jar");
+    private final DependencyDuplication ruleB = rule("org\\.example:b:jar", "org\\.example:ab:jar");
+    private final DependencyDuplication ruleUnused = rule("org\\.other:.*");
+    private final DependencyDuplication ruleC = rule("org\\.example:c:jar");
+
+    @Test
+    void testSameResultAsWithoutStatistics() {
+        final PluginMojo underTest = mojo(ruleA, ruleB, ruleUnused, ruleC);
+        final List<Optional<DependencyDuplication>> expected = new ArrayList<>();
+        for (final Dependency dependency : dependencies()) {
+            expected.add(underTest.findFirstDuplicationConfig(dependency));
+        }
+
+        underTest.recordRuleStatistics();
+        final List<Optional<DependencyDuplication>> actual = new ArrayList<>();
+        for (final Dependency dependency : dependencies()) {
+            actual.add(underTest.findFirstDuplicationConfig(dependency));
+        }
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void testCounts() {
+        final RuleStatistics underTest = record(mojo(ruleA, ruleB, ruleUnused, ruleC));
+
+        // 7 dependencies, 2 first matched by ruleA
+        assertThat(underTest.getEvaluations(0, 0)).isEqualTo(7);
+        assertThat(underTest.getMatches(0, 0)).isEqualTo(2);
+        assertThat(underTest.getEvaluations(1, 0)).isEqualTo(5);
+        assertThat(underTest.getMatches(1, 0)).isEqualTo(1);
+        assertThat(underTest.getEvaluations(1, 1)).isEqualTo(4);
+        assertThat(underTest.getMatches(1, 1)).isZero();
+        assertThat(underTest.getMatches(3)).isEqualTo(3);
+    }
+
+    @Test
+    void testDeadAndShadowed() {
+        final RuleStatistics underTest = record(mojo(ruleA, ruleB, ruleUnused, ruleC));
+
+        assertThat(underTest.getDeadRules()).containsExactly(2);
+        assertThat(underTest.getShadowingRules(1, 1)).containsExactly(0);
+        assertThat(underTest.getShadowingRules(1, 0)).isEmpty();
+        assertThat(underTest.getShadowingRules(2, 0)).isEmpty();
+        assertThat(underTest.isRedundantInRule(1, 1)).isFalse();
+    }
+
+    @Test
+    void testShadowedInSameRule() {
+        final DependencyDuplication ruleAB = rule("org\\.example:a.*:jar", "org\\.example:ab:jar");
+        final RuleStatistics underTest = record(mojo(ruleAB, ruleC));
+
+        assertThat(underTest.getShadowingRules(0, 1)).isEmpty();
+        assertThat(underTest.isRedundantInRule(0, 1)).isTrue();
+        assertThat(underTest.isRedundantInRule(0, 0)).isFalse();
+        assertThat(underTest.format())
+                .contains("pattern org\\.example:ab:jar of rule #1 is shadowed by an earlier pattern of the same rule")
+                .noneMatch(line -> line.contains("shadowed by rule"));
+    }
+
+    @Test
+    void testSuggestedOrderKeepsOverlappingRulesInOrder() {
+        final RuleStatistics underTest = record(mojo(ruleA, ruleB, ruleUnused, ruleC));
+
+        final List<Integer> suggestedOrder = underTest.getSuggestedOrder();
+
+        // ruleC matches most, ruleB has to stay behind ruleA, because both match "ab"
+        assertThat(suggestedOrder).containsExactly(3, 0, 1, 2);
+        assertThat(underTest.getEvaluations(suggestedOrder)).isLessThan(underTest.getEvaluations(Arrays.asList(0, 1, 2, 3)));
+    }
+
+    @Test
+    void testSuggestedOrderKeepsResults() {
+        final PluginMojo original = mojo(ruleA, ruleB, ruleUnused, ruleC);
+        final List<Integer> suggestedOrder = record(original).getSuggestedOrder();
+        final List<DependencyDuplication> reordered = new ArrayList<>();
+        suggestedOrder.forEach(rule -> reordered.add(original.getDuplications().get(rule)));
+        final PluginMojo suggested = mojo(reordered.toArray(new DependencyDuplication[0]));
+
+        for (final Dependency dependency : dependencies()) {
+            assertThat(suggested.findFirstDuplicationConfig(dependency)).isEqualTo(original.findFirstDuplicationConfig(dependency));
+        }
+    }
+
+    private static RuleStatistics record(final PluginMojo mojo) {
+        final RuleStatistics statistics = mojo.recordRuleStatistics();
+        dependencies().forEach(mojo::findFirstDuplicationConfig);
+        return statistics;
+    }
+
+    private static List<Dependency> dependencies() {
+        return Arrays.asList(dep("a"), dep("ab"), dep("b"), dep("c"), dep("c"), dep("c"), dep("x"));
+    }
+
+    private static PluginMojo mojo(final DependencyDuplication... rules) {
+        final PluginMojo mojo = new PluginMojo();
+        mojo.duplications = Arrays.asList(rules);
+        return mojo;
+    }
+
+    private static DependencyDuplication rule(final String... dependencyKeys) {
+        final DependencyDuplication rule = new DependencyDuplication();
+        rule.dependencyKeys = Arrays.asList(dependencyKeys);
+        return rule;
+    }
+
+    private static Dependency dep(final String artifactId) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId("org.example");
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1");
+        return dependency;
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.mickroll.maven.dependency_duplicator_plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.mickroll.maven.dependency_duplicator_plugin.ExtensionEvents.Event;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightRecorderEventsTest {
+
+    private static final String PREFIX = "com.github.mickroll.dependencyDuplicator.";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEventsRecorded() throws Exception {
+        final Properties userProperties = new Properties();
+        userProperties.setProperty(ExtensionEvents.ENABLED, "true");
+        final ExtensionEvents underTest = ExtensionEvents.of(new ExtensionSettings(userProperties, new Properties(), 1));
+        final MavenProject project = project("a");
+        final Path file = tempDir.resolve("events.jfr");
+
+        assertThat(underTest).isInstanceOf(FlightRecorderEvents.class);
+        try (Recording recording = new Recording()) {
+            for (final String name : new String[] { "ConfigResolution", "Matching", "Propagation", "ProjectPropagation", "GraphUpdate" }) {
+                recording.enable(PREFIX + name);
+            }
+            recording.start();
+            try (Event event = underTest.configResolution(project)) {
+                event.setRuleCount(2);
+            }
+            try (Event event = underTest.matching(project)) {
+                event.setRuleCount(2);
+                event.setDependencyCount(5);
+                event.setMatchCount(1);
+            }
+            try (Event event = underTest.propagation()) {
+                event.setProjectCount(3);
+                event.setDependencyCount(4);
+            }
+            try (Event event = underTest.propagation(project)) {
+                event.setProjectCount(2);
+                event.setDependencyCount(3);
+            }
+            try (Event event = underTest.graphUpdate()) {
+                event.setProjectCount(4);
+                event.setEdgeCount(1);
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final Map<String, RecordedEvent> events = events(RecordingFile.readAllEvents(file));
+        assertThat(events).containsOnlyKeys("ConfigResolution", "Matching", "Propagation", "ProjectPropagation", "GraphUpdate");
+
+        final RecordedEvent configResolution = events.get("ConfigResolution");
+        assertThat(configResolution.getString("project")).isEqualTo("org.example:a:jar:1");
+        assertThat(configResolution.getBoolean("found")).isTrue();
+        assertThat(configResolution.getInt("ruleCount")).isEqualTo(2);
+
+        final RecordedEvent matching = events.get("Matching");
+        assertThat(matching.getString("project")).isEqualTo("org.example:a:jar:1");
+        assertThat(matching.getInt("ruleCount")).isEqualTo(2);
+        assertThat(matching.getInt("dependencyCount")).isEqualTo(5);
+        assertThat(matching.getInt("matchCount")).isEqualTo(1);
+
+        final RecordedEvent propagation = events.get("Propagation");
+        assertThat(propagation.getInt("projectCount")).isEqualTo(3);
+        assertThat(propagation.getInt("dependencyCount")).isEqualTo(4);
+
+        final RecordedEvent projectPropagation = events.get("ProjectPropagation");
+        assertThat(projectPropagation.getString("project")).isEqualTo("org.example:a:jar:1");
+        assertThat(projectPropagation.getInt("sourceCount")).isEqualTo(2);
+        assertThat(projectPropagation.getInt("dependencyCount")).isEqualTo(3);
+
+        final RecordedEvent graphUpdate = events.get("GraphUpdate");
+        assertThat(graphUpdate.getInt("projectCount")).isEqualTo(4);
+        assertThat(graphUpdate.getInt("edgeCount")).isEqualTo(1);
+    }
+
+    @Test
+    void testConfigNotFound() throws Exception {
+        final Properties userProperties = new Properties();
+        userProperties.setProperty(ExtensionEvents.ENABLED, "true");
+        final ExtensionEvents underTest = ExtensionEvents.of(new ExtensionSettings(userProperties, new Properties(), 1));
+        final Path file = tempDir.resolve("events.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(PREFIX + "ConfigResolution");
+            recording.start();
+            underTest.configResolution(project("b")).close();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final RecordedEvent configResolution = events(RecordingFile.readAllEvents(file)).get("ConfigResolution");
+        assertThat(configResolution.getString("project")).isEqualTo("org.example:b:jar:1");
+        assertThat(configResolution.getBoolean("found")).isFalse();
+    }
+
+    /**
+     * @return events of this extension by their name without prefix, the last one wins
+     */
+    private static Map<String, RecordedEvent> events(final List<RecordedEvent> recorded) {
+        final Map<String, RecordedEvent> result = new HashMap<>();
+        for (final RecordedEvent event : recorded) {
+            final String name = event.getEventType().getName();
+            if (name.startsWith(PREFIX)) {
+                result.put(name.substring(PREFIX.length()), event);
+            }
+        }
+        return result;
+    }
+
+    private static MavenProject project(final String artifactId) {
+        final Model model = new Model();
+        model.setGroupId("org.example");
+        model.setArtifactId(artifactId);
+        model.setVersion("1");
+        return new MavenProject(model);
+    }
+}